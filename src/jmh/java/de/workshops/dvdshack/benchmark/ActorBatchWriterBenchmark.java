@@ -0,0 +1,93 @@
+package de.workshops.dvdshack.benchmark;
+
+import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.ActorBatchWriter;
+import de.workshops.dvdshack.repository.ActorJdbcTemplateRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares writing actors one statement per call with the {@link ActorBatchWriter}, which writes them in batches.
+ * Created actors are deleted after every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorBatchWriterBenchmark {
+
+    @Param({"100", "1000"})
+    public int actors;
+
+    private ActorJdbcTemplateRepository jdbcTemplateRepository;
+
+    private ActorBatchWriter batchWriter;
+
+    private JdbcTemplate template;
+
+    private int lastActorId;
+
+    private List<Actor> newActors;
+
+    private List<Actor> existingActors;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        jdbcTemplateRepository = application.getBean(ActorJdbcTemplateRepository.class);
+        batchWriter = application.getBean(ActorBatchWriter.class);
+        template = application.getBean(JdbcTemplate.class);
+        lastActorId = template.queryForObject("SELECT max(actor_id) FROM actor", Integer.class);
+        newActors = IntStream.range(0, actors)
+                .mapToObj(i -> Actor.builder().firstName("FIRST" + i).lastName("LAST" + i).build())
+                .toList();
+        existingActors = template.query(
+                "SELECT actor_id, first_name, last_name FROM actor ORDER BY actor_id LIMIT ?",
+                (rs, rowNum) -> Actor.builder().id(rs.getInt(1)).firstName(rs.getString(2)).lastName(rs.getString(3)).build(),
+                actors);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreatedActors() {
+        template.update("DELETE FROM actor WHERE actor_id > ?", lastActorId);
+    }
+
+    @Benchmark
+    public void perCallCreate() {
+        newActors.forEach(jdbcTemplateRepository::createActor);
+    }
+
+    @Benchmark
+    public void batchedCreate() {
+        newActors.forEach(batchWriter::create);
+        batchWriter.flush();
+    }
+
+    @Benchmark
+    public void perCallUpdate() {
+        existingActors.forEach(jdbcTemplateRepository::updateActor);
+    }
+
+    @Benchmark
+    public void batchedUpdate() {
+        existingActors.forEach(batchWriter::update);
+        batchWriter.flush();
+    }
+}
@@ -0,0 +1,68 @@
+package de.workshops.dvdshack.benchmark;
+
+import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.ActorJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.ActorJpaRepository;
+import de.workshops.dvdshack.repository.ActorNameIndexRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares typeahead suggestions from the in-memory actor name index to the same lookup in the database and to the
+ * last name {@code LIKE} query of the JPA repository used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorNameIndexBenchmark {
+
+    private static final int LIMIT = 10;
+
+    @Param({"B", "WA", "JOHANS"})
+    public String prefix;
+
+    private ActorNameIndexRepository nameIndexRepository;
+
+    private ActorJdbcTemplateRepository jdbcTemplateRepository;
+
+    private ActorJpaRepository jpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        nameIndexRepository = application.getBean(ActorNameIndexRepository.class);
+        jdbcTemplateRepository = application.getBean(ActorJdbcTemplateRepository.class);
+        jpaRepository = application.getBean(ActorJpaRepository.class);
+        nameIndexRepository.refresh();
+    }
+
+    @Benchmark
+    public List<Actor> nameIndex() {
+        return nameIndexRepository.findActorsByNamePrefix(prefix, LIMIT);
+    }
+
+    @Benchmark
+    public List<Actor> jdbcNamePrefix() {
+        return jdbcTemplateRepository.findActorsByNamePrefix(prefix, LIMIT);
+    }
+
+    @Benchmark
+    public List<Actor> jpaLastNameStartingWith() {
+        return jpaRepository.findAllByLastNameStartingWithAndFirstNameContainingOrderByIdDesc(prefix, "");
+    }
+}
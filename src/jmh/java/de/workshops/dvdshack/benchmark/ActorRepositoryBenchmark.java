@@ -0,0 +1,48 @@
+package de.workshops.dvdshack.benchmark;
+
+import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.ActorJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.ActorJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActorRepositoryBenchmark {
+
+    private ActorJdbcTemplateRepository jdbcTemplateRepository;
+
+    private ActorJpaRepository jpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        jdbcTemplateRepository = application.getBean(ActorJdbcTemplateRepository.class);
+        jpaRepository = application.getBean(ActorJpaRepository.class);
+    }
+
+    @Benchmark
+    public List<Actor> jdbcFindAllActorsWithLastName() {
+        return jdbcTemplateRepository.findAllActorsWithLastName("KILMER");
+    }
+
+    @Benchmark
+    public List<Actor> jpaFindActorsByLastName() {
+        return jpaRepository.findActorsByLastName("KILMER");
+    }
+}
@@ -0,0 +1,54 @@
+package de.workshops.dvdshack.benchmark;
+
+import de.workshops.dvdshack.DvdShackApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The application context of DVD Shack, connected to a {@link SakilaDatabase} holding {@code scale} times the
+ * films and actors of the Sakila sample data.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    @Param("1")
+    public int scale;
+
+    private SakilaDatabase database;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        database = SakilaDatabase.create(scale);
+        context = new SpringApplicationBuilder(DvdShackApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + database.jdbcUrl(),
+                        "--spring.datasource.username=" + database.username(),
+                        "--spring.datasource.password=" + database.password(),
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--spring.devtools.restart.enabled=false",
+                        // SQL logging would dominate the measurements
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--logging.level.org.hibernate.orm.jdbc.bind=warn"
+                );
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        context.close();
+        database.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
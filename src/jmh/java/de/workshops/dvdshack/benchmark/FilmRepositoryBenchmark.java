@@ -0,0 +1,85 @@
+package de.workshops.dvdshack.benchmark;
+
+import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.ActorJpaRepository;
+import de.workshops.dvdshack.repository.Film;
+import de.workshops.dvdshack.repository.FilmJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.FilmJpaRepository;
+import de.workshops.dvdshack.repository.Rating;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmRepositoryBenchmark {
+
+    private FilmJdbcTemplateRepository jdbcTemplateRepository;
+
+    private FilmJpaRepository jpaRepository;
+
+    private Actor actor;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        jdbcTemplateRepository = application.getBean(FilmJdbcTemplateRepository.class);
+        jpaRepository = application.getBean(FilmJpaRepository.class);
+        actor = application.getBean(ActorJpaRepository.class).findFirstAsActorByFirstNameAndLastName("REESE", "KILMER");
+    }
+
+    @Benchmark
+    public Integer jdbcCountFilmsPublishedInYear() {
+        return jdbcTemplateRepository.findNumberOfFilmsPublishedInYear(Year.of(2006));
+    }
+
+    @Benchmark
+    public int jpaCountFilmsByReleaseYear() {
+        return jpaRepository.countFilmsByReleaseYear(Year.of(2006));
+    }
+
+    @Benchmark
+    public List<Film> jdbcFindAllFilmsWithRating() {
+        return jdbcTemplateRepository.findAllFilmsWithRating(Rating.PG_13);
+    }
+
+    @Benchmark
+    public List<Film> jpaFindAllFilmsByRating() {
+        return jpaRepository.findAllFilmsByRating(Rating.PG_13);
+    }
+
+    @Benchmark
+    public List<Film> jdbcFindAllFilmsWithActor() {
+        return jdbcTemplateRepository.findAllFilmsWithActor(actor);
+    }
+
+    @Benchmark
+    public List<Film> jpaFindAllFilmsByActor() {
+        return jpaRepository.findAllFilmsByActorsIs(actor);
+    }
+
+    @Benchmark
+    public List<Film> jdbcFindAllFilmsWithMinimumLength() {
+        return jdbcTemplateRepository.findAllFilmsWithMinimumLength(120);
+    }
+
+    @Benchmark
+    public List<Film> jpaFindAllFilmsByMinimumLength() {
+        return jpaRepository.findAllFilmsByLengthGreaterThanEqual(120);
+    }
+}
@@ -0,0 +1,74 @@
+package de.workshops.dvdshack.benchmark;
+
+import de.workshops.dvdshack.application.FilmSearchService;
+import de.workshops.dvdshack.repository.Film;
+import de.workshops.dvdshack.repository.FilmRowMapper;
+import de.workshops.dvdshack.repository.FilmSearchRepository;
+import de.workshops.dvdshack.repository.FilmSearchResult;
+import de.workshops.dvdshack.repository.KeysetPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the first result page of the full-text search, with and without the result cache, to the title
+ * {@code LIKE} scan the search box used before. Run with {@code -p scale=...} to see how both grow with the catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final String TITLE_LIKE_SQL =
+            "SELECT film_id as id, title FROM film WHERE title LIKE ? ORDER BY title, film_id LIMIT " + (PAGE_SIZE + 1);
+
+    @Param({"dinosaur", "drama"})
+    public String term;
+
+    private FilmSearchRepository filmSearchRepository;
+
+    private FilmSearchService filmSearchService;
+
+    private JdbcTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        filmSearchRepository = application.getBean(FilmSearchRepository.class);
+        filmSearchService = application.getBean(FilmSearchService.class);
+        template = application.getBean(JdbcTemplate.class);
+    }
+
+    @Benchmark
+    public KeysetPage<FilmSearchResult> fullTextSearch() {
+        return filmSearchRepository.searchFilms(term, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public KeysetPage<FilmSearchResult> cachedFullTextSearch() {
+        return filmSearchService.searchFilms(term, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Film> titleLike() {
+        return template.query(TITLE_LIKE_SQL, new FilmRowMapper(), "%" + term.toUpperCase(Locale.ROOT) + "%");
+    }
+}
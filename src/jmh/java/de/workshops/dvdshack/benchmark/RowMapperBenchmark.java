@@ -0,0 +1,94 @@
+package de.workshops.dvdshack.benchmark;
+
+import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.ActorRowMapper;
+import de.workshops.dvdshack.repository.Film;
+import de.workshops.dvdshack.repository.FilmRowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps {@value #ROWS} films or actors with the row mappers used by the JdbcTemplate repositories. The query is the
+ * same for every benchmark of an entity, so the differences are caused by the mapping alone. Scores and the
+ * normalized allocation rate of the GC profiler are reported per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(RowMapperBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    static final int ROWS = 1000;
+
+    private static final String SQL = "SELECT film_id as id, title, length FROM film ORDER BY film_id LIMIT " + ROWS;
+
+    private static final String ACTOR_SQL = "SELECT actor_id as id, first_name, last_name, last_update FROM actor "
+            + "CROSS JOIN generate_series(1, 5) ORDER BY actor_id LIMIT " + ROWS;
+
+    private JdbcTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        template = application.getBean(JdbcTemplate.class);
+    }
+
+    @Benchmark
+    public List<Film> beanPropertyRowMapper() {
+        return template.query(SQL, new BeanPropertyRowMapper<>(Film.class));
+    }
+
+    @Benchmark
+    public List<Film> handwrittenRowMapperByColumnName() {
+        return template.query(SQL, (rs, rowNum) -> {
+            final var film = new Film();
+            film.setId(rs.getInt(rs.findColumn("id")));
+            film.setTitle(rs.getString(rs.findColumn("title")));
+            film.setLength(rs.getShort(rs.findColumn("length")));
+            return film;
+        });
+    }
+
+    @Benchmark
+    public List<Film> handwrittenRowMapperByColumnIndex() {
+        return template.query(SQL, (rs, rowNum) -> {
+            final var film = new Film();
+            film.setId(rs.getInt(1));
+            film.setTitle(rs.getString(2));
+            film.setLength(rs.getShort(3));
+            return film;
+        });
+    }
+
+    @Benchmark
+    public List<Film> indexedRowMapper() {
+        return template.query(SQL, new FilmRowMapper());
+    }
+
+    @Benchmark
+    public List<Actor> actorBeanPropertyRowMapper() {
+        return template.query(ACTOR_SQL, new BeanPropertyRowMapper<>(Actor.class));
+    }
+
+    @Benchmark
+    public List<Actor> actorIndexedRowMapper() {
+        return template.query(ACTOR_SQL, new ActorRowMapper());
+    }
+}
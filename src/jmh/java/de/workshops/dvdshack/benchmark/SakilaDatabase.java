@@ -0,0 +1,181 @@
+package de.workshops.dvdshack.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.postgresql.PGConnection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Creates a fresh Sakila database for benchmarking: the schema and sample data of the project root, with films,
+ * actors and their links copied {@code scale} times. Uses an embedded PostgreSQL unless the server is given via
+ * {@code -Ddvdshack.benchmark.jdbc-url=jdbc:postgresql://host:port/postgres} (plus {@code .username}/{@code .password}).
+ */
+final class SakilaDatabase implements AutoCloseable {
+
+    private static final String DATABASE_NAME = "dvdshack_benchmark";
+
+    private static final int SAKILA_FILMS = 1000;
+
+    private static final int SAKILA_ACTORS = 200;
+
+    private final EmbeddedPostgres embeddedPostgres;
+
+    private final String jdbcUrl;
+
+    private final String username;
+
+    private final String password;
+
+    private SakilaDatabase(EmbeddedPostgres embeddedPostgres, String serverJdbcUrl, String username, String password) {
+        this.embeddedPostgres = embeddedPostgres;
+        this.jdbcUrl = serverJdbcUrl.substring(0, serverJdbcUrl.lastIndexOf('/') + 1) + DATABASE_NAME;
+        this.username = username;
+        this.password = password;
+    }
+
+    static SakilaDatabase create(int scale) throws IOException, SQLException {
+        final var serverJdbcUrl = System.getProperty("dvdshack.benchmark.jdbc-url");
+        final SakilaDatabase database;
+        if (serverJdbcUrl == null) {
+            final var embeddedPostgres = EmbeddedPostgres.start();
+            database = new SakilaDatabase(embeddedPostgres, embeddedPostgres.getJdbcUrl("postgres", "postgres"), "postgres", "postgres");
+        } else {
+            database = new SakilaDatabase(
+                    null,
+                    serverJdbcUrl.split("\\?")[0],
+                    System.getProperty("dvdshack.benchmark.username", "postgres"),
+                    System.getProperty("dvdshack.benchmark.password", "")
+            );
+        }
+        database.recreate(serverJdbcUrl == null ? database.embeddedPostgres.getJdbcUrl("postgres", "postgres") : serverJdbcUrl);
+        database.seed(scale);
+        return database;
+    }
+
+    String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    String username() {
+        return username;
+    }
+
+    String password() {
+        return password;
+    }
+
+    private void recreate(String serverJdbcUrl) throws SQLException {
+        try (var connection = DriverManager.getConnection(serverJdbcUrl, credentials());
+             var statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + DATABASE_NAME);
+            statement.execute("CREATE DATABASE " + DATABASE_NAME);
+        }
+    }
+
+    private void seed(int scale) throws IOException, SQLException {
+        final var properties = credentials();
+        // the schema dump contains several statements per string, which only the simple query protocol accepts
+        properties.setProperty("preferQueryMode", "simple");
+
+        try (var connection = DriverManager.getConnection(jdbcUrl, properties)) {
+            try (var statement = connection.createStatement()) {
+                statement.execute(Files.readString(Path.of("postgres-sakila-schema.sql")));
+            }
+            loadData(connection, Path.of("postgres-sakila-insert-data-using-copy.sql"));
+            copyFilmsAndActors(connection, scale);
+        }
+    }
+
+    private static void loadData(Connection connection, Path dump) throws IOException, SQLException {
+        final var copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        final var statements = new StringBuilder();
+
+        try (BufferedReader reader = Files.newBufferedReader(dump)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("COPY ") && line.endsWith("FROM stdin;")) {
+                    execute(connection, statements);
+                    final var rows = new StringBuilder();
+                    String row;
+                    while (!(row = reader.readLine()).equals("\\.")) {
+                        rows.append(row).append('\n');
+                    }
+                    copyManager.copyIn(line.substring(0, line.length() - 1), new StringReader(rows.toString()));
+                } else {
+                    statements.append(line).append('\n');
+                }
+            }
+        }
+        execute(connection, statements);
+    }
+
+    private static void copyFilmsAndActors(Connection connection, int scale) throws SQLException {
+        if (scale <= 1) {
+            return;
+        }
+
+        final var sql = """
+                INSERT INTO actor (actor_id, first_name, last_name)
+                SELECT a.actor_id + (s - 1) * %2$d, a.first_name, a.last_name
+                FROM actor a, generate_series(2, %1$d) s
+                WHERE a.actor_id <= %2$d;
+
+                INSERT INTO film (film_id, title, description, release_year, language_id, original_language_id,
+                                  rental_duration, rental_rate, length, replacement_cost, rating, special_features)
+                SELECT f.film_id + (s - 1) * %3$d, f.title || ' ' || s, f.description, f.release_year, f.language_id,
+                       f.original_language_id, f.rental_duration, f.rental_rate, f.length, f.replacement_cost, f.rating,
+                       f.special_features
+                FROM film f, generate_series(2, %1$d) s
+                WHERE f.film_id <= %3$d;
+
+                INSERT INTO film_actor (actor_id, film_id)
+                SELECT fa.actor_id + (s - 1) * %2$d, fa.film_id + (s - 1) * %3$d
+                FROM film_actor fa, generate_series(2, %1$d) s
+                WHERE fa.film_id <= %3$d;
+
+                INSERT INTO film_category (film_id, category_id)
+                SELECT fc.film_id + (s - 1) * %3$d, fc.category_id
+                FROM film_category fc, generate_series(2, %1$d) s
+                WHERE fc.film_id <= %3$d;
+
+                SELECT setval('actor_actor_id_seq', (SELECT max(actor_id) FROM actor));
+                SELECT setval('film_film_id_seq', (SELECT max(film_id) FROM film));
+                ANALYZE;
+                """.formatted(scale, SAKILA_ACTORS, SAKILA_FILMS);
+
+        try (var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static void execute(Connection connection, StringBuilder statements) throws SQLException {
+        if (!statements.toString().isBlank()) {
+            try (var statement = connection.createStatement()) {
+                statement.execute(statements.toString());
+            }
+        }
+        statements.setLength(0);
+    }
+
+    private Properties credentials() {
+        final var properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        return properties;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embeddedPostgres != null) {
+            embeddedPostgres.close();
+        }
+    }
+}
@@ -2,8 +2,10 @@ package de.workshops.dvdshack.application;
 
 
 import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.ActorJdbcTemplateRepository;
 import de.workshops.dvdshack.repository.ActorJpaRepository;
-import lombok.RequiredArgsConstructor;
+import de.workshops.dvdshack.repository.ActorNameIndexRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -12,11 +14,28 @@ import java.util.List;
 import static org.springframework.data.jpa.domain.Specification.where;
 
 @Service
-@RequiredArgsConstructor
 public class ActorService {
 
     private final ActorJpaRepository actorJpaRepository;
 
+    private final ActorJdbcTemplateRepository actorJdbcTemplateRepository;
+
+    private final ActorNameIndexRepository actorNameIndexRepository;
+
+    private final boolean nameIndexEnabled;
+
+    public ActorService(
+            ActorJpaRepository actorJpaRepository,
+            ActorJdbcTemplateRepository actorJdbcTemplateRepository,
+            ActorNameIndexRepository actorNameIndexRepository,
+            @Value("${dvdshack.actor-name-index.enabled:true}") boolean nameIndexEnabled
+    ) {
+        this.actorJpaRepository = actorJpaRepository;
+        this.actorJdbcTemplateRepository = actorJdbcTemplateRepository;
+        this.actorNameIndexRepository = actorNameIndexRepository;
+        this.nameIndexEnabled = nameIndexEnabled;
+    }
+
     public List<Actor> findActorsByLastName(String lastName) {
         return actorJpaRepository.findActorsByLastName(lastName);
     }
@@ -25,6 +44,14 @@ public class ActorService {
         return actorJpaRepository.findAll(where(firstName(firstName)));
     }
 
+    // typeahead suggestions, answered from the in-memory name index unless it is disabled
+    public List<Actor> suggestActors(String prefix, int limit) {
+        if (nameIndexEnabled) {
+            return actorNameIndexRepository.findActorsByNamePrefix(prefix, limit);
+        }
+        return actorJdbcTemplateRepository.findActorsByNamePrefix(prefix, limit);
+    }
+
     private Specification<Actor> firstName(String firstName) {
         return (actor, query, criteriaBuilder) ->
                 criteriaBuilder.equal(actor.get("firstName"), firstName);
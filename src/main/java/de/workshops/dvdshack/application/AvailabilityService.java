@@ -0,0 +1,147 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.InventoryJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.StockCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Answers how many copies of a set of films are in stock at a set of stores with a single query.
+ * <p>
+ * With in-memory counters enabled, the stock of all films is loaded once and then kept up to date by
+ * {@link #rented(int, int)} and {@link #returned(int, int)}. Rentals and returns bypassing this service are only
+ * picked up by the periodic reload. Adjustments made while reloading are recorded and applied to the reloaded
+ * counters as well, as they may have been committed after the stock was read.
+ */
+@Service
+@Slf4j
+public class AvailabilityService {
+
+    private final InventoryJdbcTemplateRepository inventoryRepository;
+
+    private final boolean inMemoryCounters;
+
+    private volatile Map<StockLevels.FilmAtStore, AtomicInteger> counters;
+
+    // adjustments hold the read lock, so none of them is applied to the old counters after the reloaded ones replaced them
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private Map<StockLevels.FilmAtStore, AtomicInteger> adjustedWhileReloading;
+
+    public AvailabilityService(
+            InventoryJdbcTemplateRepository inventoryRepository,
+            @Value("${dvdshack.availability.in-memory-counters:false}") boolean inMemoryCounters
+    ) {
+        this.inventoryRepository = inventoryRepository;
+        this.inMemoryCounters = inMemoryCounters;
+    }
+
+    public StockLevels findStockLevels(Collection<Integer> filmIds, Collection<Integer> storeIds) {
+        final var inStock = new HashMap<StockLevels.FilmAtStore, Integer>();
+        if (inMemoryCounters) {
+            final var current = counters();
+            for (Integer filmId : filmIds) {
+                for (Integer storeId : storeIds) {
+                    final var key = new StockLevels.FilmAtStore(filmId, storeId);
+                    final var counter = current.get(key);
+                    if (counter != null) {
+                        inStock.put(key, counter.get());
+                    }
+                }
+            }
+        } else {
+            for (StockCount stockCount : inventoryRepository.findStockCounts(filmIds, storeIds)) {
+                inStock.put(new StockLevels.FilmAtStore(stockCount.filmId(), stockCount.storeId()), stockCount.inStock());
+            }
+        }
+        return new StockLevels(Map.copyOf(inStock));
+    }
+
+    public void rented(int filmId, int storeId) {
+        adjust(filmId, storeId, -1);
+    }
+
+    public void returned(int filmId, int storeId) {
+        adjust(filmId, storeId, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${dvdshack.availability.counter-refresh-interval:PT5M}")
+    public synchronized void refreshCounters() {
+        if (!inMemoryCounters || counters == null) {
+            return;
+        }
+        final var adjusted = new ConcurrentHashMap<StockLevels.FilmAtStore, AtomicInteger>();
+        swapLock.writeLock().lock();
+        try {
+            adjustedWhileReloading = adjusted;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        final var reloaded = loadCounters();
+        swapLock.writeLock().lock();
+        try {
+            // an adjustment committed before the stock was read is counted twice until the next reload
+            adjusted.forEach((key, delta) -> add(reloaded, key, delta.get()));
+            counters = reloaded;
+            adjustedWhileReloading = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void adjust(int filmId, int storeId, int delta) {
+        if (!inMemoryCounters) {
+            return;
+        }
+        final var key = new StockLevels.FilmAtStore(filmId, storeId);
+        swapLock.readLock().lock();
+        try {
+            final var current = counters;
+            if (current == null) {
+                return;
+            }
+            add(current, key, delta);
+            if (adjustedWhileReloading != null) {
+                add(adjustedWhileReloading, key, delta);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void add(Map<StockLevels.FilmAtStore, AtomicInteger> counters, StockLevels.FilmAtStore key, int delta) {
+        counters.computeIfAbsent(key, k -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    private Map<StockLevels.FilmAtStore, AtomicInteger> counters() {
+        if (counters == null) {
+            synchronized (this) {
+                if (counters == null) {
+                    counters = loadCounters();
+                }
+            }
+        }
+        return counters;
+    }
+
+    private Map<StockLevels.FilmAtStore, AtomicInteger> loadCounters() {
+        final var loaded = new ConcurrentHashMap<StockLevels.FilmAtStore, AtomicInteger>();
+        for (StockCount stockCount : inventoryRepository.findAllStockCounts()) {
+            loaded.put(new StockLevels.FilmAtStore(stockCount.filmId(), stockCount.storeId()),
+                    new AtomicInteger(stockCount.inStock()));
+        }
+        log.info("Loaded stock counters for {} films and stores", loaded.size());
+        return loaded;
+    }
+}
@@ -0,0 +1,13 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Change;
+import de.workshops.dvdshack.repository.ChangeFeedTable;
+
+import java.util.List;
+
+/**
+ * Batch of changes to one table, published by the {@link ChangeFeedPoller} in the order they were made. Listeners
+ * receive it through {@code @EventListener} on the polling thread.
+ */
+public record ChangeFeedEvent(ChangeFeedTable table, List<Change> changes) {
+}
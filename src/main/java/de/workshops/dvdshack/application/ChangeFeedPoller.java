@@ -0,0 +1,76 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.ChangeFeedRepository;
+import de.workshops.dvdshack.repository.ChangeFeedTable;
+import de.workshops.dvdshack.repository.ChangePosition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Publishes the changes made to the {@link ChangeFeedTable}s as {@link ChangeFeedEvent}s, so that caches and indexes
+ * can be refreshed incrementally. The feed starts when the application does, listeners load their initial state
+ * themselves. Changes are published once the transactions that could still commit before them have ended, see
+ * {@link ChangeFeedRepository}.
+ */
+@Service
+@Slf4j
+public class ChangeFeedPoller {
+
+    private final ChangeFeedRepository changeFeedRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
+    private final Map<ChangeFeedTable, ChangePosition> positions = new EnumMap<>(ChangeFeedTable.class);
+
+    public ChangeFeedPoller(
+            ChangeFeedRepository changeFeedRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${dvdshack.change-feed.batch-size:1000}") int batchSize
+    ) {
+        this.changeFeedRepository = changeFeedRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    // publishes the changes made since the last poll, returns how many there were
+    @Scheduled(fixedDelayString = "${dvdshack.change-feed.poll-interval:PT5S}")
+    public synchronized int poll() {
+        if (positions.isEmpty()) {
+            final var start = ChangePosition.at(changeFeedRepository.horizon());
+            for (var table : ChangeFeedTable.values()) {
+                positions.put(table, start);
+            }
+        }
+
+        int published = 0;
+        for (var table : ChangeFeedTable.values()) {
+            published += poll(table);
+        }
+        return published;
+    }
+
+    private int poll(ChangeFeedTable table) {
+        int published = 0;
+        while (true) {
+            final var changes = changeFeedRepository.findChanges(table, positions.get(table), batchSize);
+            if (changes.isEmpty()) {
+                return published;
+            }
+            eventPublisher.publishEvent(new ChangeFeedEvent(table, changes));
+            positions.put(table, changes.get(changes.size() - 1).position());
+            published += changes.size();
+            log.debug("Published {} changes to {}", changes.size(), table.tableName());
+            if (changes.size() < batchSize) {
+                return published;
+            }
+        }
+    }
+}
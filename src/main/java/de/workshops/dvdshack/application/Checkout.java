@@ -0,0 +1,16 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Rental;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Items rented out by a checkout, and those that weren't because they don't exist or were rented out already.
+ */
+public record Checkout(List<Rental> rentals, Set<Integer> unavailable) {
+
+    public boolean isComplete() {
+        return unavailable.isEmpty();
+    }
+}
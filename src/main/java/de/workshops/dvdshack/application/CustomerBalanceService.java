@@ -0,0 +1,51 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Customer;
+import de.workshops.dvdshack.repository.CustomerBalance;
+import de.workshops.dvdshack.repository.CustomerBalanceJdbcTemplateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Computes customer balances for all or a set of customers in a single query instead of calling
+ * get_customer_balance once per customer.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerBalanceService {
+
+    private final CustomerBalanceJdbcTemplateRepository customerBalanceRepository;
+
+    public void forEachBalance(LocalDateTime effectiveDate, Consumer<CustomerBalance> consumer) {
+        customerBalanceRepository.forEachCustomerBalance(effectiveDate, null, consumer);
+    }
+
+    public void forEachBalance(LocalDateTime effectiveDate, Collection<Integer> customerIds,
+                               Consumer<CustomerBalance> consumer) {
+        if (customerIds.isEmpty()) {
+            return;
+        }
+        customerBalanceRepository.forEachCustomerBalance(effectiveDate, customerIds, consumer);
+    }
+
+    public List<CustomerBalance> findBalances(LocalDateTime effectiveDate, Collection<Integer> customerIds) {
+        final var balances = new ArrayList<CustomerBalance>(customerIds.size());
+        forEachBalance(effectiveDate, customerIds, balances::add);
+        return balances;
+    }
+
+    public BigDecimal getBalance(Customer customer, LocalDateTime effectiveDate) {
+        final var balances = findBalances(effectiveDate, List.of(customer.getId()));
+        if (balances.isEmpty()) {
+            throw new IllegalArgumentException("Unknown customer " + customer.getId());
+        }
+        return balances.get(0).balance();
+    }
+}
@@ -0,0 +1,53 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.Film;
+import de.workshops.dvdshack.repository.FilmJpaRepository;
+import de.workshops.dvdshack.repository.Rating;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Year;
+import java.util.List;
+
+/**
+ * Returns films with languages, actors and categories initialized, using three queries per call
+ * regardless of the number of films found: films with languages, then the actors, then the categories.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class FilmCatalogService {
+
+    private final FilmJpaRepository filmJpaRepository;
+
+    public List<Film> findAllFilmsByRating(Rating rating) {
+        return withCollections(filmJpaRepository.findAllWithLanguagesByRating(rating));
+    }
+
+    public List<Film> findAllFilmsByActor(Actor actor) {
+        return withCollections(filmJpaRepository.findAllWithLanguagesByActorsIs(actor));
+    }
+
+    public List<Film> findAllFilmsWithMinimumLength(int minutes) {
+        return withCollections(filmJpaRepository.findAllWithLanguagesByLengthGreaterThanEqual(minutes));
+    }
+
+    public List<Film> findByTitleAndReleaseYearOrLength(String title, Year releaseYear, int length) {
+        return withCollections(filmJpaRepository.findAllWithLanguagesByTitleAndReleaseYearOrLength(title, releaseYear, length));
+    }
+
+    private List<Film> withCollections(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+
+        // the films are already managed, so these queries only initialize their collections
+        final var ids = films.stream().map(Film::getId).distinct().toList();
+        filmJpaRepository.fetchActorsOfFilms(ids);
+        filmJpaRepository.fetchCategoriesOfFilms(ids);
+
+        return films;
+    }
+}
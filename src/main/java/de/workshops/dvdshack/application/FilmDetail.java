@@ -0,0 +1,34 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.Category;
+import de.workshops.dvdshack.repository.Film;
+import de.workshops.dvdshack.repository.Language;
+import de.workshops.dvdshack.repository.RentalStats;
+import de.workshops.dvdshack.repository.StockCount;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Everything shown on the detail page of a film. Parts which failed or took too long to load are null and listed in
+ * {@link #missing()}.
+ */
+public record FilmDetail(
+        Film film,
+        List<Actor> actors,
+        List<Category> categories,
+        List<Language> languages,
+        List<StockCount> stock,
+        RentalStats rentalStats,
+        Set<Part> missing
+) {
+
+    public enum Part {
+        FILM, ACTORS, CATEGORIES, LANGUAGES, STOCK, RENTAL_STATS
+    }
+
+    public boolean isComplete() {
+        return missing.isEmpty();
+    }
+}
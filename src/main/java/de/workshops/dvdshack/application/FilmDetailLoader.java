@@ -0,0 +1,110 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Film;
+import de.workshops.dvdshack.repository.FilmDetailRepository;
+import de.workshops.dvdshack.repository.InventoryJdbcTemplateRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Loads the parts of a {@link FilmDetail} concurrently, so loading takes as long as the slowest part instead of all
+ * parts together.
+ * <p>
+ * The queries of all requests share a pool of at most half the connection pool size, so detail pages cannot take
+ * all connections. A part not loaded within the branch timeout, counted from submission, is left out of the result;
+ * if it is still waiting for a thread by then, it isn't started at all.
+ */
+@Service
+@Slf4j
+public class FilmDetailLoader {
+
+    private final FilmDetailRepository filmDetailRepository;
+
+    private final InventoryJdbcTemplateRepository inventoryRepository;
+
+    private final Duration branchTimeout;
+
+    private final ExecutorService executor;
+
+    public FilmDetailLoader(
+            FilmDetailRepository filmDetailRepository,
+            InventoryJdbcTemplateRepository inventoryRepository,
+            @Value("${dvdshack.film-detail.max-concurrent-queries:4}") int maxConcurrentQueries,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+            @Value("${dvdshack.film-detail.branch-timeout:PT2S}") Duration branchTimeout
+    ) {
+        this.filmDetailRepository = filmDetailRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.branchTimeout = branchTimeout;
+        final var threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxConcurrentQueries, connectionPoolSize / 2)),
+                runnable -> {
+                    final var thread = new Thread(runnable, "film-detail-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // empty if there is no such film
+    public Optional<FilmDetail> load(int filmId) {
+        final var missing = EnumSet.noneOf(FilmDetail.Part.class);
+        final var film = branch(FilmDetail.Part.FILM, () -> filmDetailRepository.findFilm(filmId));
+        final var actors = branch(FilmDetail.Part.ACTORS, () -> filmDetailRepository.findActors(filmId));
+        final var categories = branch(FilmDetail.Part.CATEGORIES, () -> filmDetailRepository.findCategories(filmId));
+        final var languages = branch(FilmDetail.Part.LANGUAGES, () -> filmDetailRepository.findLanguages(filmId));
+        final var stock = branch(FilmDetail.Part.STOCK, () -> inventoryRepository.findStockCounts(filmId));
+        final var rentalStats = branch(FilmDetail.Part.RENTAL_STATS, () -> filmDetailRepository.findRentalStats(filmId));
+
+        final Optional<Film> loadedFilm = film.join();
+        if (loadedFilm == null) {
+            missing.add(FilmDetail.Part.FILM);
+        } else if (loadedFilm.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new FilmDetail(
+                loadedFilm == null ? null : loadedFilm.get(),
+                join(actors, FilmDetail.Part.ACTORS, missing),
+                join(categories, FilmDetail.Part.CATEGORIES, missing),
+                join(languages, FilmDetail.Part.LANGUAGES, missing),
+                join(stock, FilmDetail.Part.STOCK, missing),
+                join(rentalStats, FilmDetail.Part.RENTAL_STATS, missing),
+                Collections.unmodifiableSet(missing)
+        ));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // completes with null if the part failed or timed out
+    private <T> CompletableFuture<T> branch(FilmDetail.Part part, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor)
+                .orTimeout(branchTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Could not load {} of film detail", part, e);
+                    return null;
+                });
+    }
+
+    private static <T> T join(CompletableFuture<T> branch, FilmDetail.Part part, EnumSet<FilmDetail.Part> missing) {
+        final var result = branch.join();
+        if (result == null) {
+            missing.add(part);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.CacheRegions;
+import de.workshops.dvdshack.repository.FilmImport;
+import de.workshops.dvdshack.repository.FilmImportReport;
+import de.workshops.dvdshack.repository.FilmImportRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports film catalogs through the {@link FilmImportRepository}. As the films are written with COPY, bypassing
+ * Hibernate, the cached film counts are evicted afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+public class FilmImportService {
+
+    private final FilmImportRepository filmImportRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public FilmImportReport importFilms(Iterable<FilmImport> films) {
+        try {
+            return filmImportRepository.importFilms(films);
+        } finally {
+            entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegion(CacheRegions.FILM_COUNTS);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.FilmSearchRepository;
+import de.workshops.dvdshack.repository.FilmSearchResult;
+import de.workshops.dvdshack.repository.KeysetPage;
+import de.workshops.dvdshack.repository.ScrollToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Full-text film search with a short-lived cache, so popular queries typed by many users at once hit the database
+ * only once per time-to-live. The cache holds the most recently used pages, and a time-to-live of zero disables it.
+ */
+@Service
+public class FilmSearchService {
+
+    private final FilmSearchRepository filmSearchRepository;
+
+    private final long cacheTtlNanos;
+
+    private final Map<SearchKey, CachedPage> cache;
+
+    public FilmSearchService(
+            FilmSearchRepository filmSearchRepository,
+            @Value("${dvdshack.film-search.cache-ttl:PT30S}") Duration cacheTtl,
+            @Value("${dvdshack.film-search.cache-size:256}") int cacheSize
+    ) {
+        this.filmSearchRepository = filmSearchRepository;
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchKey, CachedPage> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public KeysetPage<FilmSearchResult> searchFilms(String query, ScrollToken after, int size) {
+        final var normalizedQuery = normalize(query);
+        if (cacheTtlNanos <= 0) {
+            return filmSearchRepository.searchFilms(normalizedQuery, after, size);
+        }
+
+        final var key = new SearchKey(normalizedQuery, after, size);
+        final var now = System.nanoTime();
+        final var cached = cache.get(key);
+        if (cached != null && now - cached.loadedAt() < cacheTtlNanos) {
+            return cached.page();
+        }
+
+        final var page = filmSearchRepository.searchFilms(normalizedQuery, after, size);
+        cache.put(key, new CachedPage(page, now));
+        return page;
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    private static String normalize(String query) {
+        return query == null ? "" : query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record SearchKey(String query, ScrollToken after, int size) {
+    }
+
+    private record CachedPage(KeysetPage<FilmSearchResult> page, long loadedAt) {
+    }
+}
@@ -0,0 +1,96 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.ChangeFeedRepository;
+import de.workshops.dvdshack.repository.ChangeFeedTable;
+import de.workshops.dvdshack.repository.LoyaltyCardJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.WatermarkJdbcTemplateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+
+/**
+ * Keeps {@code loyalty_card.points} current by consuming the payments added since the last run instead of rescanning
+ * all payments like rewards_report does. Every payment earns its amount times the points per dollar, rounded down.
+ * <p>
+ * Each batch of payments is aggregated per customer in memory and applied with one batched upsert, in the same
+ * transaction that advances the watermark, so a crashed or restarted run never accrues a payment twice. Payments are
+ * consumed from the {@link ChangeFeedRepository change feed}, which holds them back until every transaction started
+ * before them has ended, so a payment committing late is accrued by a later run instead of never.
+ */
+@Service
+@Slf4j
+public class LoyaltyPointsAccrualService {
+
+    static final String WATERMARK = "loyalty-points";
+
+    private final LoyaltyCardJdbcTemplateRepository loyaltyCardRepository;
+
+    private final WatermarkJdbcTemplateRepository watermarkRepository;
+
+    private final ChangeFeedRepository changeFeedRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BigDecimal pointsPerDollar;
+
+    private final int batchSize;
+
+    public LoyaltyPointsAccrualService(
+            LoyaltyCardJdbcTemplateRepository loyaltyCardRepository,
+            WatermarkJdbcTemplateRepository watermarkRepository,
+            ChangeFeedRepository changeFeedRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${dvdshack.loyalty.points-per-dollar:10}") int pointsPerDollar,
+            @Value("${dvdshack.loyalty.accrual-batch-size:5000}") int batchSize
+    ) {
+        this.loyaltyCardRepository = loyaltyCardRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.changeFeedRepository = changeFeedRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.pointsPerDollar = BigDecimal.valueOf(pointsPerDollar);
+        this.batchSize = batchSize;
+    }
+
+    // returns the number of payments accrued
+    @Scheduled(fixedDelayString = "${dvdshack.loyalty.accrual-interval:PT1M}")
+    public int accrue() {
+        int accrued = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> accrueBatch());
+            accrued += batch;
+        } while (batch == batchSize);
+
+        if (accrued > 0) {
+            log.info("Accrued loyalty points for {} payments", accrued);
+        }
+        return accrued;
+    }
+
+    private int accrueBatch() {
+        final var watermark = watermarkRepository.lock(WATERMARK);
+        final var changes = changeFeedRepository.findChanges(ChangeFeedTable.PAYMENT, watermark, batchSize);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        final var pointsByCustomer = new HashMap<Integer, Integer>();
+        final var paymentIds = changes.stream().map(change -> change.key().get(0)).toList();
+        loyaltyCardRepository.forEachPayment(paymentIds, payment ->
+                pointsByCustomer.merge(payment.customerId(), points(payment.amount()), Integer::sum));
+
+        loyaltyCardRepository.addPoints(pointsByCustomer);
+        watermarkRepository.advance(WATERMARK, changes.get(changes.size() - 1).position());
+        return changes.size();
+    }
+
+    int points(BigDecimal amount) {
+        return amount.multiply(pointsPerDollar).setScale(0, RoundingMode.DOWN).intValueExact();
+    }
+}
@@ -0,0 +1,62 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Rental;
+import de.workshops.dvdshack.repository.RentalJdbcTemplateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Checks out and returns any number of items with a single statement each, see
+ * {@link RentalJdbcTemplateRepository}. Items another checkout got first are reported as unavailable instead of
+ * waiting for or locking the inventory. The stock counters of the {@link AvailabilityService} are adjusted once
+ * the transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class RentalService {
+
+    private final RentalJdbcTemplateRepository rentalRepository;
+
+    private final AvailabilityService availabilityService;
+
+    @Transactional
+    public Checkout checkout(int customerId, int staffId, Collection<Integer> inventoryIds) {
+        final var rentals = rentalRepository.rent(inventoryIds, customerId, staffId);
+
+        final var unavailable = new LinkedHashSet<>(inventoryIds);
+        rentals.forEach(rental -> unavailable.remove(rental.inventoryId()));
+
+        afterCommit(() -> rentals.forEach(rental -> availabilityService.rented(rental.filmId(), rental.storeId())));
+        return new Checkout(rentals, unavailable);
+    }
+
+    // items that weren't rented out are missing from the result
+    @Transactional
+    public List<Rental> returnItems(Collection<Integer> inventoryIds) {
+        final var rentals = rentalRepository.giveBack(inventoryIds);
+
+        afterCommit(() -> rentals.forEach(rental -> availabilityService.returned(rental.filmId(), rental.storeId())));
+        return rentals;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Rental> findOpenRentals(int customerId) {
+        return rentalRepository.findOpenRentals(customerId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.CategorySales;
+import de.workshops.dvdshack.repository.ChangeFeedRepository;
+import de.workshops.dvdshack.repository.ChangeFeedTable;
+import de.workshops.dvdshack.repository.SalesAnalyticsJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.StoreSales;
+import de.workshops.dvdshack.repository.WatermarkJdbcTemplateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales reports for the dashboard, read from daily totals instead of the sales_by_film_category and sales_by_store
+ * views. The totals lag behind the payments by at most one refresh interval, plus the time it takes until every
+ * transaction started before a payment has ended, see {@link ChangeFeedRepository}.
+ */
+@Service
+@Slf4j
+public class SalesAnalyticsService {
+
+    static final String WATERMARK = "daily-sales";
+
+    private final SalesAnalyticsJdbcTemplateRepository salesRepository;
+
+    private final WatermarkJdbcTemplateRepository watermarkRepository;
+
+    private final ChangeFeedRepository changeFeedRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public SalesAnalyticsService(
+            SalesAnalyticsJdbcTemplateRepository salesRepository,
+            WatermarkJdbcTemplateRepository watermarkRepository,
+            ChangeFeedRepository changeFeedRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${dvdshack.sales-analytics.refresh-batch-size:50000}") int batchSize
+    ) {
+        this.salesRepository = salesRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.changeFeedRepository = changeFeedRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public List<CategorySales> findSalesByCategory() {
+        return salesRepository.findSalesByCategory();
+    }
+
+    public List<CategorySales> findSalesByCategory(LocalDate from, LocalDate to) {
+        return salesRepository.findSalesByCategory(from, to);
+    }
+
+    public List<StoreSales> findSalesByStore() {
+        return salesRepository.findSalesByStore();
+    }
+
+    public List<StoreSales> findSalesByStore(LocalDate from, LocalDate to) {
+        return salesRepository.findSalesByStore(from, to);
+    }
+
+    // adds the payments made since the last refresh, returns whether there were any
+    @Scheduled(fixedDelayString = "${dvdshack.sales-analytics.refresh-interval:PT10S}")
+    public boolean refresh() {
+        boolean refreshed = false;
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> refreshBatch()))) {
+            refreshed = true;
+        }
+        return refreshed;
+    }
+
+    private boolean refreshBatch() {
+        final var watermark = watermarkRepository.lock(WATERMARK);
+        final var changes = changeFeedRepository.findChanges(ChangeFeedTable.PAYMENT, watermark, batchSize);
+        if (changes.isEmpty()) {
+            return false;
+        }
+        salesRepository.addSales(changes.stream().map(change -> change.key().get(0)).toList());
+        final var last = changes.get(changes.size() - 1).position();
+        watermarkRepository.advance(WATERMARK, last);
+        log.debug("Added {} payments up to {} to the daily sales", changes.size(), last);
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package de.workshops.dvdshack.application;
+
+import java.util.Map;
+
+/**
+ * Copies in stock per film and store. Films a store doesn't own have no copies in stock.
+ */
+public record StockLevels(Map<FilmAtStore, Integer> inStock) {
+
+    public int inStock(int filmId, int storeId) {
+        return inStock.getOrDefault(new FilmAtStore(filmId, storeId), 0);
+    }
+
+    public boolean isInStock(int filmId, int storeId) {
+        return inStock(filmId, storeId) > 0;
+    }
+
+    public record FilmAtStore(int filmId, int storeId) {
+    }
+}
@@ -0,0 +1,53 @@
+package de.workshops.dvdshack.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+
+/**
+ * Replaces the single datasource by a {@link ReadWriteRoutingDataSource} once replicas are configured. The primary
+ * pool is still configured by {@code spring.datasource}, the replica pools take the same hikari settings.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "dvdshack.datasource.routing", name = "replicas[0].url")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfiguration {
+
+    @Bean
+    ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, DataSourceRoutingProperties routing,
+                                          Environment environment) {
+        final var primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        bindHikariProperties(primary, environment);
+
+        final var replicas = new ArrayList<DataSource>();
+        for (int i = 0; i < routing.replicas().size(); i++) {
+            final var replica = routing.replicas().get(i);
+            final var dataSource = new HikariDataSource();
+            bindHikariProperties(dataSource, environment);
+            dataSource.setPoolName(primary.getPoolName() == null ? "replica-" + i : primary.getPoolName() + "-replica-" + i);
+            dataSource.setJdbcUrl(replica.url());
+            dataSource.setUsername(replica.username());
+            dataSource.setPassword(replica.password());
+            replica.properties().forEach(dataSource::addDataSourceProperty);
+            dataSource.setConnectionTimeout(routing.connectionTimeout().toMillis());
+            // a replica being down must not keep the application from starting
+            dataSource.setInitializationFailTimeout(-1);
+            replicas.add(dataSource);
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replicas, routing.retryAfter(), routing.readYourWrites());
+    }
+
+    private static void bindHikariProperties(HikariDataSource dataSource, Environment environment) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+    }
+}
@@ -0,0 +1,30 @@
+package de.workshops.dvdshack.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param replicas read-only transactions are spread over these databases, none sends everything to the primary
+ * @param retryAfter a replica refusing connections is left out for this long
+ * @param connectionTimeout how long to wait for a replica connection before falling back to the primary
+ * @param readYourWrites read-only transactions on a thread go to the primary for this long after it wrote,
+ *                       zero disables this
+ */
+@ConfigurationProperties("dvdshack.datasource.routing")
+public record DataSourceRoutingProperties(
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("30s") Duration retryAfter,
+        @DefaultValue("1s") Duration connectionTimeout,
+        @DefaultValue("0s") Duration readYourWrites
+) {
+
+    /**
+     * @param properties driver specific connection properties
+     */
+    public record Replica(String url, String username, String password, @DefaultValue Map<String, String> properties) {
+    }
+}
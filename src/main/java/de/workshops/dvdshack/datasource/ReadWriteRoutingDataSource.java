@@ -0,0 +1,69 @@
+package de.workshops.dvdshack.datasource;
+
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Sends read-only transactions to the replicas and everything else to the primary. Connections are only fetched
+ * when the first statement runs, by which time the transaction has marked them read-only or not.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final Duration retryAfter;
+
+    private final Duration readYourWrites;
+
+    private final List<DataSource> dataSources;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration retryAfter,
+                                      Duration readYourWrites) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.retryAfter = retryAfter;
+        this.readYourWrites = readYourWrites;
+        route(primary, replicas);
+        // otherwise the first connection would count as a write
+        try (Connection connection = primary.getConnection()) {
+            checkDefaultConnectionProperties(connection);
+        } catch (SQLException e) {
+            throw new CannotGetJdbcConnectionException("Could not connect to the primary", e);
+        }
+
+        dataSources = new ArrayList<>(replicas);
+        dataSources.add(primary);
+    }
+
+    // wraps the pools of the primary and the replicas, from which connections are taken when the first statement runs
+    public void decoratePools(UnaryOperator<DataSource> decorator) {
+        route(decorator.apply(primary), replicas.stream().map(decorator).toList());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void route(DataSource primary, List<DataSource> replicas) {
+        final var replicaDataSource = new ReplicaDataSource(primary, replicas, retryAfter, readYourWrites);
+        setTargetDataSource(replicaDataSource.writeTrackingPrimary());
+        setReadOnlyDataSource(replicaDataSource);
+    }
+}
@@ -0,0 +1,130 @@
+package de.workshops.dvdshack.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections to the replicas in turn. A replica refusing a connection is skipped until the retry interval
+ * has passed; without any available replica, and right after the current thread wrote to the primary if
+ * read-your-writes is enabled, connections come from the primary.
+ */
+@Slf4j
+class ReplicaDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final long retryAfterNanos;
+
+    private final long readYourWritesNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+    ReplicaDataSource(DataSource primary, List<DataSource> replicas, Duration retryAfter, Duration readYourWrites) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(dataSource -> new Replica(dataSource)).toList();
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.readYourWritesNanos = readYourWrites.toNanos();
+    }
+
+    // the primary, recording when the current thread last used it for writing
+    DataSource writeTrackingPrimary() {
+        return new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                recordWrite();
+                return super.getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                recordWrite();
+                return super.getConnection(username, password);
+            }
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(Connector connector) throws SQLException {
+        if (replicas.isEmpty() || readsOwnWrites()) {
+            return connector.connect(primary);
+        }
+
+        final int first = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            final var replica = replicas.get((first + i) % replicas.size());
+            if (replica.isAvailable()) {
+                try {
+                    return connector.connect(replica.dataSource);
+                } catch (SQLException e) {
+                    log.warn("Replica {} is unavailable, retrying in {} ms", (first + i) % replicas.size(),
+                            retryAfterNanos / 1_000_000, e);
+                    replica.failedAt = System.nanoTime();
+                    replica.failed = true;
+                }
+            }
+        }
+        return connector.connect(primary);
+    }
+
+    private void recordWrite() {
+        if (readYourWritesNanos > 0) {
+            lastWrite.set(System.nanoTime());
+        }
+    }
+
+    private boolean readsOwnWrites() {
+        final var written = lastWrite.get();
+        if (written == null) {
+            return false;
+        }
+        if (System.nanoTime() - written < readYourWritesNanos) {
+            return true;
+        }
+        lastWrite.remove();
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    private final class Replica {
+
+        private final DataSource dataSource;
+
+        private volatile boolean failed;
+
+        private volatile long failedAt;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean isAvailable() {
+            return !failed || System.nanoTime() - failedAt >= retryAfterNanos;
+        }
+    }
+}
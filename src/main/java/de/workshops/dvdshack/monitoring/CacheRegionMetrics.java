@@ -0,0 +1,53 @@
+package de.workshops.dvdshack.monitoring;
+
+import de.workshops.dvdshack.repository.CacheRegions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the hits, misses and puts of every second-level cache region from the Hibernate statistics, tagged with
+ * the region name. Regions are created on first use, so they count zero until then.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheRegionMetrics implements MeterBinder {
+
+    static final String REQUESTS = "dvdshack.cache.requests";
+
+    static final String PUTS = "dvdshack.cache.puts";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : CacheRegions.ALL) {
+            counter(REQUESTS, statistics, region, CacheRegionStatistics::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            counter(REQUESTS, statistics, region, CacheRegionStatistics::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            counter(PUTS, statistics, region, CacheRegionStatistics::getPutCount)
+                    .register(registry);
+        }
+    }
+
+    private static FunctionCounter.Builder<Statistics> counter(String name, Statistics statistics, String region,
+                                                              ToLongFunction<CacheRegionStatistics> count) {
+        return FunctionCounter.builder(name, statistics, stats -> {
+                    final var regionStatistics = stats.getCacheRegionStatistics(region);
+                    return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+                })
+                .tag("region", region);
+    }
+}
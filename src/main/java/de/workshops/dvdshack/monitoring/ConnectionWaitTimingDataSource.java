@@ -0,0 +1,44 @@
+package de.workshops.dvdshack.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Adds the time spent waiting for a pooled connection to the current {@link RepositoryInvocation}.
+ */
+class ConnectionWaitTimingDataSource extends DelegatingDataSource {
+
+    ConnectionWaitTimingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            recordWait(start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        final long start = System.nanoTime();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            recordWait(start);
+        }
+    }
+
+    private static void recordWait(long start) {
+        final var invocation = RepositoryInvocation.current();
+        if (invocation != null) {
+            invocation.connectionAcquired(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.workshops.dvdshack.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Attributes executed statements to the current {@link RepositoryInvocation} and writes a sample of the slow
+ * statements to the log. A JDBC batch counts as one statement.
+ */
+@Slf4j
+class JdbcMonitoringListener implements QueryExecutionListener {
+
+    private final MonitoringProperties properties;
+
+    JdbcMonitoringListener(MonitoringProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // nothing to do here
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        final var invocation = RepositoryInvocation.current();
+        if (invocation != null) {
+            invocation.statementExecuted();
+        }
+
+        if (execInfo.getElapsedTime() >= properties.slowQueryThreshold().toMillis()
+                && ThreadLocalRandom.current().nextDouble() < properties.slowQuerySampleRate()) {
+            log.warn("Slow statement ({} ms{}): {}",
+                    execInfo.getElapsedTime(),
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                    queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package de.workshops.dvdshack.monitoring;
+
+import de.workshops.dvdshack.datasource.ReadWriteRoutingDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(MonitoringProperties.class)
+public class MonitoringConfiguration {
+
+    @Bean
+    static BeanPostProcessor monitoringDataSourcePostProcessor(ObjectProvider<MonitoringProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    final DataSource timedDataSource;
+                    if (bean instanceof ReadWriteRoutingDataSource routingDataSource) {
+                        // hands out lazy connections immediately, the pools are only asked at the first statement
+                        routingDataSource.decoratePools(ConnectionWaitTimingDataSource::new);
+                        timedDataSource = routingDataSource;
+                    } else {
+                        timedDataSource = new ConnectionWaitTimingDataSource(dataSource);
+                    }
+                    return ProxyDataSourceBuilder.create(timedDataSource)
+                            .name(beanName)
+                            .listener(new JdbcMonitoringListener(properties.getObject()))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // statements of tasks started by a repository method on another thread are attributed to that method
+    @Bean
+    TaskDecorator repositoryInvocationTaskDecorator() {
+        return RepositoryInvocation::propagate;
+    }
+}
@@ -0,0 +1,17 @@
+package de.workshops.dvdshack.monitoring;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param slowQueryThreshold statements taking at least this long are candidates for the slow query log
+ * @param slowQuerySampleRate fraction (0.0 to 1.0) of the slow statements that are actually logged
+ */
+@ConfigurationProperties("dvdshack.monitoring")
+public record MonitoringProperties(
+        @DefaultValue("500ms") Duration slowQueryThreshold,
+        @DefaultValue("1.0") double slowQuerySampleRate
+) {
+}
@@ -0,0 +1,75 @@
+package de.workshops.dvdshack.monitoring;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JDBC activity of the repository method currently running on this thread. Nested repository calls are
+ * attributed to the outermost one, as are the statements of tasks it hands to other threads through
+ * {@link #propagate(Runnable)}.
+ */
+final class RepositoryInvocation {
+
+    private static final ThreadLocal<RepositoryInvocation> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    private final AtomicLong connectionWaitNanos = new AtomicLong();
+
+    private RepositoryInvocation() {
+    }
+
+    static RepositoryInvocation start() {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+
+        final var invocation = new RepositoryInvocation();
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    static RepositoryInvocation current() {
+        return CURRENT.get();
+    }
+
+    static Runnable propagate(Runnable task) {
+        final var invocation = CURRENT.get();
+        if (invocation == null) {
+            return task;
+        }
+        return () -> {
+            final var previous = CURRENT.get();
+            CURRENT.set(invocation);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    void end() {
+        CURRENT.remove();
+    }
+
+    void statementExecuted() {
+        statements.incrementAndGet();
+    }
+
+    void connectionAcquired(long waitNanos) {
+        connectionWaitNanos.addAndGet(waitNanos);
+    }
+
+    int statements() {
+        return statements.get();
+    }
+
+    long connectionWaitNanos() {
+        return connectionWaitNanos.get();
+    }
+}
@@ -0,0 +1,127 @@
+package de.workshops.dvdshack.monitoring;
+
+import de.workshops.dvdshack.repository.KeysetPage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Window;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+/**
+ * Records a timer, the number of rows returned, the number of statements executed and the connection wait time
+ * for every call of a method of a repository, tagged with repository, method and outcome. Scheduled refreshes of
+ * repositories are left out, as are helpers of the repository package which are no repositories themselves.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    static final String INVOCATIONS = "dvdshack.repository.invocations";
+
+    static final String ROWS = "dvdshack.repository.rows";
+
+    static final String STATEMENTS = "dvdshack.repository.statements";
+
+    static final String CONNECTION_WAIT = "dvdshack.repository.connection.wait";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("(@within(org.springframework.stereotype.Repository) && !@annotation(org.springframework.scheduling.annotation.Scheduled))"
+            + " || this(org.springframework.data.repository.Repository)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        final var invocation = RepositoryInvocation.start();
+        if (invocation == null) {
+            return joinPoint.proceed();
+        }
+
+        final var sample = Timer.start(meterRegistry);
+        var tags = Tags.of(
+                "repository", repositoryName(joinPoint),
+                "method", joinPoint.getSignature().getName()
+        );
+        try {
+            final var result = joinPoint.proceed();
+            tags = tags.and("outcome", "success");
+
+            final long rows = rows(result);
+            if (rows >= 0) {
+                summary(ROWS, "rows", tags).record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            tags = tags.and("outcome", "error");
+            throw e;
+        } finally {
+            invocation.end();
+            sample.stop(Timer.builder(INVOCATIONS)
+                    .description("Execution time of repository methods")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            summary(STATEMENTS, "statements", tags).record(invocation.statements());
+            Timer.builder(CONNECTION_WAIT)
+                    .description("Time repository methods waited for a database connection")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(invocation.connectionWaitNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private DistributionSummary summary(String name, String baseUnit, Tags tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static String repositoryName(ProceedingJoinPoint joinPoint) {
+        final var target = joinPoint.getTarget();
+        // Spring Data repositories are JDK proxies, so their repository interface is the meaningful name
+        if (Proxy.isProxyClass(target.getClass())) {
+            for (Class<?> type : target.getClass().getInterfaces()) {
+                if (Repository.class.isAssignableFrom(type) && type != Repository.class) {
+                    return type.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(target).getSimpleName();
+    }
+
+    // -1 if the result is not a number of rows, e.g. a stream that is still open
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Window<?> window) {
+            return window.size();
+        }
+        if (result instanceof KeysetPage<?> page) {
+            return page.content().size();
+        }
+        if (result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
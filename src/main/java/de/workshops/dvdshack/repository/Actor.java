@@ -15,7 +15,7 @@ public class Actor extends BaseEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ACTOR_ID_SEQ")
-    @SequenceGenerator(name = "ACTOR_ID_SEQ", sequenceName = "actor_actor_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "ACTOR_ID_SEQ", sequenceName = "actor_actor_id_seq", allocationSize = 50)
     @Column(name = "actor_id", nullable = false)
     private Integer id;
 
@@ -0,0 +1,191 @@
+package de.workshops.dvdshack.repository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Write-behind for the actor mutations of import jobs. Creates, updates and deletes are collected and written with
+ * one JDBC batch statement per kind, as soon as batch-size of them are pending or max-delay has passed since the
+ * first of them. Every mutation returns a future completing once it has been written, with the generated id of a
+ * created actor or the number of rows updated or deleted.
+ * <p>
+ * Each batch statement runs in its own transaction, independent of the caller's. If it fails, the futures of all its
+ * mutations fail with that exception, while the batches of the other kinds are still written. Updates of the same
+ * actor are coalesced, the last one wins, and updates are written before deletes.
+ */
+@Component
+@Slf4j
+public class ActorBatchWriter {
+
+    private final ActorJdbcTemplateRepository actorRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final Duration maxDelay;
+
+    private final ScheduledExecutorService scheduler;
+
+    // guards pending and scheduledFlush
+    private final Object lock = new Object();
+
+    // keeps concurrent flushes from writing mutations out of order
+    private final Object writeLock = new Object();
+
+    private Batch pending = new Batch();
+
+    private ScheduledFuture<?> scheduledFlush;
+
+    public ActorBatchWriter(
+            ActorJdbcTemplateRepository actorRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${dvdshack.actor-writer.batch-size:500}") int batchSize,
+            @Value("${dvdshack.actor-writer.max-delay:PT1S}") Duration maxDelay
+    ) {
+        this.actorRepository = actorRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "actor-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Integer> create(Actor actor) {
+        final var result = new CompletableFuture<Integer>();
+        add(batch -> batch.creates.add(new Pending<>(actor, result)));
+        return result;
+    }
+
+    public CompletableFuture<Integer> update(Actor actor) {
+        final var result = new CompletableFuture<Integer>();
+        add(batch -> {
+            final var replaced = batch.updates.put(actor.getId(), new Pending<>(actor, result));
+            if (replaced != null) {
+                result.whenComplete((rows, e) -> complete(replaced.result(), rows, e));
+            }
+        });
+        return result;
+    }
+
+    public CompletableFuture<Integer> delete(int id) {
+        final var result = new CompletableFuture<Integer>();
+        add(batch -> batch.deletes.add(new Pending<>(id, result)));
+        return result;
+    }
+
+    // writes the pending mutations and waits for them, their failures are reported through their futures
+    public void flush() {
+        synchronized (writeLock) {
+            write(drain());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private void add(Consumer<Batch> mutation) {
+        final boolean full;
+        synchronized (lock) {
+            mutation.accept(pending);
+            if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            full = pending.size() >= batchSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    private Batch drain() {
+        synchronized (lock) {
+            final var drained = pending;
+            pending = new Batch();
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            return drained;
+        }
+    }
+
+    private void write(Batch batch) {
+        write("create", batch.creates, actorRepository::createActors);
+        write("update", new ArrayList<>(batch.updates.values()), actors -> toList(actorRepository.updateActors(actors)));
+        write("delete", batch.deletes, ids -> toList(actorRepository.deleteActors(ids)));
+    }
+
+    private <T> void write(String kind, List<Pending<T>> mutations, Function<List<T>, List<Integer>> statement) {
+        if (mutations.isEmpty()) {
+            return;
+        }
+
+        final var values = mutations.stream().map(Pending::value).toList();
+        final List<Integer> results;
+        try {
+            results = transactionTemplate.execute(status -> statement.apply(values));
+        } catch (RuntimeException e) {
+            log.warn("Batch to {} {} actors failed", kind, mutations.size(), e);
+            mutations.forEach(mutation -> mutation.result().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < mutations.size(); i++) {
+            mutations.get(i).result().complete(results.get(i));
+        }
+        log.debug("Batch to {} {} actors written", kind, mutations.size());
+    }
+
+    private static List<Integer> toList(int[] rowCounts) {
+        return IntStream.of(rowCounts).boxed().toList();
+    }
+
+    private static void complete(CompletableFuture<Integer> future, Integer rows, Throwable e) {
+        if (e == null) {
+            future.complete(rows);
+        } else {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private record Pending<T>(T value, CompletableFuture<Integer> result) {
+    }
+
+    private static class Batch {
+
+        private final List<Pending<Actor>> creates = new ArrayList<>();
+
+        private final Map<Integer, Pending<Actor>> updates = new LinkedHashMap<>();
+
+        private final List<Pending<Integer>> deletes = new ArrayList<>();
+
+        private int size() {
+            return creates.size() + updates.size() + deletes.size();
+        }
+    }
+}
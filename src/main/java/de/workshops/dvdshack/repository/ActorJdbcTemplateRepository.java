@@ -1,25 +1,100 @@
 package de.workshops.dvdshack.repository;
 
 
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 public class ActorJdbcTemplateRepository {
 
     private final JdbcTemplate template;
 
-    public ActorJdbcTemplateRepository(JdbcTemplate template) {
+    private final StreamingJdbcTemplate streamingTemplate;
+
+    public ActorJdbcTemplateRepository(
+            JdbcTemplate template,
+            @Value("${dvdshack.jdbc.stream-fetch-size:1000}") int streamFetchSize
+    ) {
         this.template = template;
+        this.streamingTemplate = new StreamingJdbcTemplate(template.getDataSource(), streamFetchSize);
     }
 
     public List<Actor> findAllActorsWithLastName(String lastName) {
         String sql = "SELECT actor_id as id, first_name, last_name, last_update FROM actor WHERE last_name=?";
 
-        return template.query(sql, new BeanPropertyRowMapper<>(Actor.class), lastName);
+        return template.query(sql, new ActorRowMapper(), lastName);
+    }
+
+    // pass the "next" token of the previous page as "after", or null for the first page
+    public KeysetPage<Actor> scrollActorsWithLastNameStartingWithAndFirstNameContaining(
+            String lastName, String firstName, ScrollToken after, int size) {
+        String sql = """
+        SELECT actor_id as id, first_name, last_name, last_update
+        FROM actor
+        WHERE last_name LIKE ? AND first_name LIKE ?%s
+        ORDER BY last_name, actor_id
+        LIMIT ?""".formatted(after == null ? "" : " AND (last_name, actor_id) > (?, ?)");
+
+        final var parameters = new ArrayList<Object>(List.of(escapeLike(lastName) + "%", "%" + escapeLike(firstName) + "%"));
+        if (after != null) {
+            parameters.add(after.sortKey());
+            parameters.add(after.id());
+        }
+        parameters.add(size + 1);
+
+        final var actors = template.query(sql, new ActorRowMapper(), parameters.toArray());
+        return KeysetPage.of(actors, size, actor -> new ScrollToken(actor.getLastName(), actor.getId()));
+    }
+
+    // actors whose last name starts with the prefix, ignoring case, then those whose first name does
+    public List<Actor> findActorsByNamePrefix(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        String sql = """
+        SELECT actor_id as id, first_name, last_name, last_update
+        FROM (
+            SELECT *, upper(last_name) LIKE ? AS last_name_matches
+            FROM actor
+            WHERE upper(last_name) LIKE ? OR upper(first_name) LIKE ?
+        ) a
+        ORDER BY last_name_matches DESC,
+                 CASE WHEN last_name_matches THEN upper(last_name) ELSE upper(first_name) END COLLATE "C",
+                 CASE WHEN last_name_matches THEN upper(first_name) ELSE upper(last_name) END COLLATE "C",
+                 actor_id
+        LIMIT ?""";
+
+        final var pattern = escapeLike(prefix.toUpperCase(Locale.ROOT)) + "%";
+        return template.query(sql, new ActorRowMapper(), pattern, pattern, pattern, limit);
+    }
+
+    // must be called within a transaction, and the stream must be closed
+    public Stream<Actor> streamAllActorsWithLastName(String lastName) {
+        String sql = "SELECT actor_id as id, first_name, last_name, last_update FROM actor WHERE last_name=?";
+
+        return streamingTemplate.queryForStream(sql, new ActorRowMapper(), lastName);
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachActorWithLastName(String lastName, Consumer<Actor> consumer) {
+        String sql = "SELECT actor_id as id, first_name, last_name, last_update FROM actor WHERE last_name=?";
+
+        final var rowMapper = new ActorRowMapper();
+        streamingTemplate.query(sql, rs -> consumer.accept(rowMapper.mapRow(rs, rs.getRow())), lastName);
     }
 
     public void createActor(Actor actor) {
@@ -32,6 +107,55 @@ public class ActorJdbcTemplateRepository {
                 , actor.getFirstName(), actor.getLastName(), actor.getId());
     }
     public void deleteActor(Integer id) {
-        template.execute("DELETE FROM actor WHERE actor_id=%d".formatted(id));
+        template.update("DELETE FROM actor WHERE actor_id=?", id);
+    }
+
+    // one batch statement, returns the ids of the created actors in the order of the given actors
+    public List<Integer> createActors(List<Actor> actors) {
+        if (actors.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final var keyHolder = new GeneratedKeyHolder();
+        template.batchUpdate(
+                con -> con.prepareStatement("INSERT INTO actor (first_name, last_name) VALUES (?, ?)",
+                        new String[]{"actor_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, actors.get(i).getFirstName());
+                        ps.setString(2, actors.get(i).getLastName());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return actors.size();
+                    }
+                },
+                keyHolder);
+
+        final var ids = new ArrayList<Integer>(actors.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.get("actor_id")).intValue());
+        }
+        return ids;
+    }
+
+    // one batch statement, returns the number of rows updated per actor
+    public int[] updateActors(List<Actor> actors) {
+        return template.batchUpdate("UPDATE actor SET first_name=?, last_name=? WHERE actor_id=?", actors.stream()
+                .map(actor -> new Object[]{actor.getFirstName(), actor.getLastName(), actor.getId()})
+                .toList());
+    }
+
+    // one batch statement, returns the number of rows deleted per id
+    public int[] deleteActors(List<Integer> ids) {
+        return template.batchUpdate("DELETE FROM actor WHERE actor_id=?", ids.stream()
+                .map(id -> new Object[]{id})
+                .toList());
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 }
@@ -1,5 +1,8 @@
 package de.workshops.dvdshack.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -10,7 +13,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ActorJpaRepository extends JpaRepository<Actor, Integer>, JpaSpecificationExecutor<Actor> {
+public interface ActorJpaRepository extends JpaRepository<Actor, Integer>, JpaSpecificationExecutor<Actor>, BatchingRepository<Actor> {
 
     List<Actor> findActorsByLastName(String lastName);
 
@@ -22,6 +25,17 @@ public interface ActorJpaRepository extends JpaRepository<Actor, Integer>, JpaSp
 
     List<Actor> findAllByLastNameStartingWithAndFirstNameContainingOrderByIdDesc(String lastName, String firstName);
 
+    Window<Actor> findByLastNameStartingWithAndFirstNameContainingOrderByLastNameAscIdAsc(
+            String lastName, String firstName, ScrollPosition position, Limit limit);
+
+    // pass the "next" token of the previous page as "after", or null for the first page
+    default KeysetPage<Actor> scrollByLastNameStartingWithAndFirstNameContaining(
+            String lastName, String firstName, ScrollToken after, int size) {
+        final var window = findByLastNameStartingWithAndFirstNameContainingOrderByLastNameAscIdAsc(
+                lastName, firstName, KeysetPage.positionAfter(after, "lastName"), Limit.of(size));
+        return KeysetPage.of(window, actor -> new ScrollToken(actor.getLastName(), actor.getId()));
+    }
+
     @Query("SELECT a FROM Actor a WHERE a.firstName = :firstName AND a.lastName = :lastName")
     List<Actor> queryActors(
             @Param("firstName") String firstName,
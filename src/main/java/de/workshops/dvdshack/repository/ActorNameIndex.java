@@ -0,0 +1,165 @@
+package de.workshops.dvdshack.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable prefix index over the names of all actors. Each actor appears once in a sorted array of last name keys
+ * and once in a sorted array of first name keys, so the actors with a name starting with a prefix are found by binary
+ * search followed by a scan of the matching range, stopping after the requested number of matches.
+ */
+final class ActorNameIndex {
+
+    // sorts keys of the same name by the other name and then by id
+    private static final char SEPARATOR = '\u0000';
+
+    private final int[] ids;
+
+    private final String[] firstNames;
+
+    private final String[] lastNames;
+
+    private final LocalDateTime[] lastUpdates;
+
+    private final String[] lastNameKeys;
+
+    private final int[] rowsByLastName;
+
+    private final String[] firstNameKeys;
+
+    private final int[] rowsByFirstName;
+
+    private final LocalDateTime lastUpdate;
+
+    private ActorNameIndex(Builder builder) {
+        final int size = builder.ids.size();
+        ids = builder.ids.stream().mapToInt(Integer::intValue).toArray();
+        firstNames = builder.firstNames.toArray(String[]::new);
+        lastNames = builder.lastNames.toArray(String[]::new);
+        lastUpdates = builder.lastUpdates.toArray(LocalDateTime[]::new);
+
+        final var byLastName = new String[size];
+        final var byFirstName = new String[size];
+        for (int row = 0; row < size; row++) {
+            byLastName[row] = key(lastNames[row], firstNames[row], ids[row]);
+            byFirstName[row] = key(firstNames[row], lastNames[row], ids[row]);
+        }
+        rowsByLastName = sortedRows(byLastName);
+        lastNameKeys = IntStream.of(rowsByLastName).mapToObj(row -> byLastName[row]).toArray(String[]::new);
+        rowsByFirstName = sortedRows(byFirstName);
+        firstNameKeys = IntStream.of(rowsByFirstName).mapToObj(row -> byFirstName[row]).toArray(String[]::new);
+        lastUpdate = builder.lastUpdate;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.toUpperCase(Locale.ROOT);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    LocalDateTime lastUpdate() {
+        return lastUpdate;
+    }
+
+    // actors whose last name starts with the prefix come first, then those whose first name does
+    List<Actor> findActorsByNamePrefix(String prefix, int limit) {
+        final var normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        final var rows = new LinkedHashSet<Integer>();
+        collect(lastNameKeys, rowsByLastName, normalizedPrefix, limit, rows);
+        collect(firstNameKeys, rowsByFirstName, normalizedPrefix, limit, rows);
+
+        final var actors = new ArrayList<Actor>(rows.size());
+        for (int row : rows) {
+            actors.add(newActor(row));
+        }
+        return actors;
+    }
+
+    private static void collect(String[] keys, int[] rows, String prefix, int limit, LinkedHashSet<Integer> result) {
+        for (int i = lowerBound(keys, prefix); i < keys.length && result.size() < limit && keys[i].startsWith(prefix); i++) {
+            result.add(rows[i]);
+        }
+    }
+
+    private static int lowerBound(String[] keys, String value) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] sortedRows(String[] keys) {
+        return IntStream.range(0, keys.length)
+                .boxed()
+                .sorted(Comparator.comparing(row -> keys[row]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    // ids are zero padded, so that their string order is their numeric order
+    private static String key(String name, String otherName, int id) {
+        return normalize(name) + SEPARATOR + normalize(otherName) + SEPARATOR + "%010d".formatted(id);
+    }
+
+    private Actor newActor(int row) {
+        final var actor = new Actor();
+        actor.setId(ids[row]);
+        actor.setFirstName(firstNames[row]);
+        actor.setLastName(lastNames[row]);
+        actor.setLastUpdate(lastUpdates[row]);
+        return actor;
+    }
+
+    static final class Builder {
+
+        private final List<Integer> ids = new ArrayList<>();
+
+        private final List<String> firstNames = new ArrayList<>();
+
+        private final List<String> lastNames = new ArrayList<>();
+
+        private final List<LocalDateTime> lastUpdates = new ArrayList<>();
+
+        private LocalDateTime lastUpdate;
+
+        private Builder() {
+        }
+
+        Builder add(int id, String firstName, String lastName, LocalDateTime lastUpdate) {
+            ids.add(id);
+            firstNames.add(firstName);
+            lastNames.add(lastName);
+            lastUpdates.add(lastUpdate);
+            if (lastUpdate != null && (this.lastUpdate == null || lastUpdate.isAfter(this.lastUpdate))) {
+                this.lastUpdate = lastUpdate;
+            }
+            return this;
+        }
+
+        ActorNameIndex build() {
+            return new ActorNameIndex(this);
+        }
+    }
+}
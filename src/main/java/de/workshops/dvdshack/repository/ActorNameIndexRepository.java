@@ -0,0 +1,100 @@
+package de.workshops.dvdshack.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Answers actor name prefix lookups from an in-memory {@link ActorNameIndex}. The index is loaded on first use
+ * and replaced as a whole whenever the actor table has changed, i.e. its row count or latest last_update differ.
+ * <p>
+ * A transaction that started before the index was loaded but committed after it stamps its rows with an older
+ * last_update, which neither changes the row count nor the latest last_update. The {@link ChangeFeedRepository}
+ * reports these rows once their transaction has ended, which reloads the index again.
+ */
+@Repository
+@Slf4j
+public class ActorNameIndexRepository {
+
+    private final JdbcTemplate template;
+
+    private final ChangeFeedRepository changeFeedRepository;
+
+    private volatile ActorNameIndex index;
+
+    // changes at or after this position may have committed after the index was loaded, i.e. those of the transactions
+    // open while loading
+    private volatile ChangePosition loadPosition;
+
+    public ActorNameIndexRepository(JdbcTemplate template, ChangeFeedRepository changeFeedRepository) {
+        this.template = template;
+        this.changeFeedRepository = changeFeedRepository;
+    }
+
+    // actors whose last name starts with the prefix, ignoring case, then those whose first name does
+    public List<Actor> findActorsByNamePrefix(String prefix, int limit) {
+        return index().findActorsByNamePrefix(prefix, limit);
+    }
+
+    @Scheduled(fixedDelayString = "${dvdshack.actor-name-index.refresh-interval:PT10S}")
+    public boolean refreshIfChanged() {
+        final var current = index;
+        if (current == null) {
+            return false;
+        }
+
+        final var state = template.queryForObject(
+                "SELECT count(*) AS actors, max(last_update) AS last_update FROM actor",
+                (rs, rowNum) -> new TableState(rs.getInt("actors"), toLocalDateTime(rs.getTimestamp("last_update")))
+        );
+        if (state.actors() == current.size() && Objects.equals(state.lastUpdate(), current.lastUpdate())
+                && changeFeedRepository.findChanges(ChangeFeedTable.ACTOR, loadPosition, 1).isEmpty()) {
+            return false;
+        }
+
+        refresh();
+        return true;
+    }
+
+    public synchronized void refresh() {
+        final var builder = ActorNameIndex.builder();
+        final var horizon = changeFeedRepository.horizon();
+
+        template.query("SELECT actor_id, first_name, last_name, last_update FROM actor", rs -> {
+            builder.add(
+                    rs.getInt("actor_id"),
+                    rs.getString("first_name"),
+                    rs.getString("last_name"),
+                    toLocalDateTime(rs.getTimestamp("last_update"))
+            );
+        });
+
+        loadPosition = ChangePosition.at(horizon);
+        index = builder.build();
+        log.info("Loaded actor name index with {} actors", index.size());
+    }
+
+    private ActorNameIndex index() {
+        if (index == null) {
+            synchronized (this) {
+                if (index == null) {
+                    refresh();
+                }
+            }
+        }
+        return index;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private record TableState(int actors, LocalDateTime lastUpdate) {
+    }
+}
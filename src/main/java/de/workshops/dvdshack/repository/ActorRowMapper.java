@@ -0,0 +1,41 @@
+package de.workshops.dvdshack.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ActorRowMapper extends IndexedRowMapper<Actor> {
+
+    private static final int ID = 0;
+    private static final int FIRST_NAME = 1;
+    private static final int LAST_NAME = 2;
+    private static final int LAST_UPDATE = 3;
+
+    public ActorRowMapper() {
+        super(List.of(
+                List.of("id", "actor_id"),
+                List.of("first_name"),
+                List.of("last_name"),
+                List.of("last_update")
+        ));
+    }
+
+    @Override
+    protected Actor mapRow(ResultSet rs, int[] columnIndexes) throws SQLException {
+        final var actor = new Actor();
+        if (columnIndexes[ID] > 0) {
+            actor.setId(rs.getInt(columnIndexes[ID]));
+        }
+        if (columnIndexes[FIRST_NAME] > 0) {
+            actor.setFirstName(rs.getString(columnIndexes[FIRST_NAME]));
+        }
+        if (columnIndexes[LAST_NAME] > 0) {
+            actor.setLastName(rs.getString(columnIndexes[LAST_NAME]));
+        }
+        if (columnIndexes[LAST_UPDATE] > 0) {
+            actor.setLastUpdate(rs.getObject(columnIndexes[LAST_UPDATE], LocalDateTime.class));
+        }
+        return actor;
+    }
+}
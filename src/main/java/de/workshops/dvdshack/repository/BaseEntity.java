@@ -1,5 +1,6 @@
 package de.workshops.dvdshack.repository;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.MappedSuperclass;
 
 import java.time.LocalDateTime;
@@ -7,6 +8,8 @@ import java.util.Objects;
 
 @MappedSuperclass
 public class BaseEntity {
+    // maintained by the column default and the last_updated() trigger
+    @Column(insertable = false, updatable = false)
     private LocalDateTime lastUpdate;
 
     public LocalDateTime getLastUpdate() {
@@ -0,0 +1,13 @@
+package de.workshops.dvdshack.repository;
+
+import java.util.List;
+
+public interface BatchingRepository<T> {
+
+    /**
+     * Persists or merges the given entities, flushing and clearing the persistence context after every
+     * JDBC batch, so that inserts and updates are sent as batched statements instead of one per row.
+     * Any entity managed by the surrounding transaction is detached afterwards.
+     */
+    <S extends T> List<S> saveAllBatched(Iterable<S> entities);
+}
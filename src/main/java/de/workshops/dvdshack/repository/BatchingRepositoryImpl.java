@@ -0,0 +1,73 @@
+package de.workshops.dvdshack.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class BatchingRepositoryImpl<T> implements BatchingRepository<T> {
+
+    private final EntityManager entityManager;
+
+    private final int batchSize;
+
+    public BatchingRepositoryImpl(
+            EntityManager entityManager,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize
+    ) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public <S extends T> List<S> saveAllBatched(Iterable<S> entities) {
+        final var savedEntities = new ArrayList<S>();
+        final var batch = new ArrayList<S>(batchSize);
+        for (S entity : entities) {
+            batch.add(entity);
+            if (batch.size() == batchSize) {
+                saveBatch(batch, savedEntities);
+                batch.clear();
+            }
+        }
+        saveBatch(batch, savedEntities);
+
+        return savedEntities;
+    }
+
+    private <S extends T> void saveBatch(List<S> batch, List<S> savedEntities) {
+        // merging a detached entity selects it first, unless it is already managed, so all of them are loaded at once
+        final var detachedIds = new LinkedHashMap<Class<?>, List<Object>>();
+        for (S entity : batch) {
+            final var information = entityInformation(entity);
+            if (!information.isNew(entity)) {
+                detachedIds.computeIfAbsent(entity.getClass(), type -> new ArrayList<>()).add(information.getId(entity));
+            }
+        }
+        final var session = entityManager.unwrap(Session.class);
+        detachedIds.forEach((type, ids) -> session.byMultipleIds(type).multiLoad(ids));
+
+        for (S entity : batch) {
+            if (entityInformation(entity).isNew(entity)) {
+                entityManager.persist(entity);
+                savedEntities.add(entity);
+            } else {
+                savedEntities.add(entityManager.merge(entity));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> JpaEntityInformation<S, ?> entityInformation(S entity) {
+        return JpaEntityInformationSupport.getEntityInformation((Class<S>) entity.getClass(), entityManager);
+    }
+}
@@ -0,0 +1,22 @@
+package de.workshops.dvdshack.repository;
+
+import java.util.List;
+
+/**
+ * Names of the second-level cache regions, configured in ehcache.xml.
+ */
+public final class CacheRegions {
+
+    public static final String LANGUAGE = "language";
+
+    public static final String CATEGORY = "category";
+
+    public static final String FILM_CATEGORIES = "film-categories";
+
+    public static final String FILM_COUNTS = "film-counts";
+
+    public static final List<String> ALL = List.of(LANGUAGE, CATEGORY, FILM_CATEGORIES, FILM_COUNTS);
+
+    private CacheRegions() {
+    }
+}
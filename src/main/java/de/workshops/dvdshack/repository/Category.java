@@ -1,14 +1,18 @@
 package de.workshops.dvdshack.repository;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CATEGORY)
 public class Category extends BaseEntity{
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "CATEGORY_ID_SEQ")
-    @SequenceGenerator(name = "CATEGORY_ID_SEQ", sequenceName = "category_category_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "CATEGORY_ID_SEQ", sequenceName = "category_category_id_seq", allocationSize = 50)
     @Column(name = "category_id", nullable = false)
     private Integer id;
 
@@ -0,0 +1,36 @@
+package de.workshops.dvdshack.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class CategoryRowMapper extends IndexedRowMapper<Category> {
+
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int LAST_UPDATE = 2;
+
+    public CategoryRowMapper() {
+        super(List.of(
+                List.of("id", "category_id"),
+                List.of("name"),
+                List.of("last_update")
+        ));
+    }
+
+    @Override
+    protected Category mapRow(ResultSet rs, int[] columnIndexes) throws SQLException {
+        final var category = new Category();
+        if (columnIndexes[ID] > 0) {
+            category.setId(rs.getInt(columnIndexes[ID]));
+        }
+        if (columnIndexes[NAME] > 0) {
+            category.setName(rs.getString(columnIndexes[NAME]));
+        }
+        if (columnIndexes[LAST_UPDATE] > 0) {
+            category.setLastUpdate(rs.getObject(columnIndexes[LAST_UPDATE], LocalDateTime.class));
+        }
+        return category;
+    }
+}
@@ -0,0 +1,6 @@
+package de.workshops.dvdshack.repository;
+
+import java.math.BigDecimal;
+
+public record CategorySales(String category, BigDecimal totalSales) {
+}
@@ -0,0 +1,15 @@
+package de.workshops.dvdshack.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Row of a {@link ChangeFeedTable} that was inserted or updated at lastUpdate, identified by its primary key
+ * in the order of {@link ChangeFeedTable#keyColumns()}.
+ */
+public record Change(ChangeFeedTable table, List<Integer> key, LocalDateTime lastUpdate) {
+
+    public ChangePosition position() {
+        return new ChangePosition(lastUpdate, key);
+    }
+}
@@ -0,0 +1,79 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rows inserted or updated since a {@link ChangePosition}, read in the order of last_update and primary key, which
+ * the last_updated() trigger and the column defaults maintain for every table.
+ * <p>
+ * last_update is the start of the changing transaction, not its commit, so a transaction that commits late shows up
+ * behind changes that have already been read. Only changes made before the {@link #horizon()} are returned, i.e.
+ * before the start of the oldest transaction still open, whose changes cannot be visible yet. This also holds back
+ * the feed while a long running transaction is open, even one that only reads. Other sessions are only seen in
+ * pg_stat_activity if they use the same database role or the application's role has pg_read_all_stats. Deleted rows
+ * leave no trace in the feed.
+ */
+@Repository
+public class ChangeFeedRepository {
+
+    private final JdbcTemplate template;
+
+    public ChangeFeedRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    // changes made before are committed, the current transaction does not count as open; a transaction only takes a
+    // transaction id on its first write but stamps its rows with its start, so open transactions without one count
+    public LocalDateTime horizon() {
+        String sql = """
+                SELECT least(min(xact_start)::timestamp, statement_timestamp()::timestamp)
+                FROM pg_stat_activity
+                WHERE datname = current_database()
+                AND backend_type = 'client backend'
+                AND pid <> pg_backend_pid()
+                AND xact_start IS NOT NULL""";
+
+        return template.queryForObject(sql, LocalDateTime.class);
+    }
+
+    public List<Change> findChanges(ChangeFeedTable table, ChangePosition after, int limit) {
+        if (!after.key().isEmpty() && after.key().size() != table.keyColumns().size()) {
+            throw new IllegalArgumentException("Position " + after + " does not match the key of " + table);
+        }
+
+        final var keyColumns = String.join(", ", table.keyColumns());
+        final var afterKey = after.key().isEmpty()
+                ? "last_update >= ?"
+                : "(last_update, " + keyColumns + ") > (?, " + "?, ".repeat(table.keyColumns().size() - 1) + "?)";
+        String sql = """
+                SELECT last_update, %s
+                FROM %s
+                WHERE %s
+                AND last_update < ?
+                ORDER BY last_update, %s
+                LIMIT ?
+                """.formatted(keyColumns, table.tableName(), afterKey, keyColumns);
+
+        // read first, so that the changes of transactions ending in between are visible to the next statement
+        final var horizon = horizon();
+        final var args = new ArrayList<Object>();
+        args.add(Timestamp.valueOf(after.lastUpdate()));
+        args.addAll(after.key());
+        args.add(Timestamp.valueOf(horizon));
+        args.add(limit);
+
+        return template.query(sql, (rs, rowNum) -> {
+            final var key = new ArrayList<Integer>(table.keyColumns().size());
+            for (int i = 0; i < table.keyColumns().size(); i++) {
+                key.add(rs.getInt(i + 2));
+            }
+            return new Change(table, List.copyOf(key), rs.getTimestamp(1).toLocalDateTime());
+        }, args.toArray());
+    }
+}
@@ -0,0 +1,35 @@
+package de.workshops.dvdshack.repository;
+
+import java.util.List;
+
+/**
+ * Tables covered by the change feed, with the columns of their primary key.
+ */
+public enum ChangeFeedTable {
+    ACTOR("actor", "actor_id"),
+    FILM("film", "film_id"),
+    CATEGORY("category", "category_id"),
+    LANGUAGE("language", "language_id"),
+    CUSTOMER("customer", "customer_id"),
+    FILM_ACTOR("film_actor", "actor_id", "film_id"),
+    FILM_CATEGORY("film_category", "film_id", "category_id"),
+    // payments are only ever inserted, there is no trigger maintaining their last_update
+    PAYMENT("payment", "payment_id");
+
+    private final String tableName;
+
+    private final List<String> keyColumns;
+
+    ChangeFeedTable(String tableName, String... keyColumns) {
+        this.tableName = tableName;
+        this.keyColumns = List.of(keyColumns);
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public List<String> keyColumns() {
+        return keyColumns;
+    }
+}
@@ -0,0 +1,16 @@
+package de.workshops.dvdshack.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Position in the change feed of a table, i.e. the last_update and primary key of the last change read. Rows
+ * changed in one transaction share their last_update, so the key is needed to continue within them.
+ */
+public record ChangePosition(LocalDateTime lastUpdate, List<Integer> key) {
+
+    // before all changes made at or after lastUpdate
+    public static ChangePosition at(LocalDateTime lastUpdate) {
+        return new ChangePosition(lastUpdate, List.of());
+    }
+}
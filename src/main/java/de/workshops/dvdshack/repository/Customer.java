@@ -10,12 +10,20 @@ public class Customer extends BaseEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "CUSTOMER_ID_SEQ")
-    @SequenceGenerator(name = "CUSTOMER_ID_SEQ", sequenceName = "customer_customer_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "CUSTOMER_ID_SEQ", sequenceName = "customer_customer_id_seq", allocationSize = 50)
     @Column(name = "customer_id", nullable = false)
     private Integer id;
 
     private Date birthday;
 
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,99 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Computes the balance of many customers in one pass, with the same rules as the get_customer_balance function:
+ * rental fees plus one dollar per full day overdue, minus payments, each up to the effective date.
+ */
+@Repository
+public class CustomerBalanceJdbcTemplateRepository {
+
+    private static final RowMapper<CustomerBalance> CUSTOMER_BALANCE_MAPPER = (rs, rowNum) -> new CustomerBalance(
+            rs.getInt(1),
+            rs.getBigDecimal(2)
+    );
+
+    private final StreamingJdbcTemplate streamingTemplate;
+
+    public CustomerBalanceJdbcTemplateRepository(
+            JdbcTemplate template,
+            @Value("${dvdshack.jdbc.stream-fetch-size:1000}") int streamFetchSize
+    ) {
+        this.streamingTemplate = new StreamingJdbcTemplate(template.getDataSource(), streamFetchSize);
+    }
+
+    // customerIds restricts the result to the given customers, null computes the balance of all of them
+    // must be called within a transaction, and the stream must be closed
+    public Stream<CustomerBalance> streamCustomerBalances(LocalDateTime effectiveDate, Collection<Integer> customerIds) {
+        final var query = balanceQuery(effectiveDate, customerIds);
+        return streamingTemplate.queryForStream(query.sql(), CUSTOMER_BALANCE_MAPPER, query.parameters());
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachCustomerBalance(LocalDateTime effectiveDate, Collection<Integer> customerIds,
+                                       Consumer<CustomerBalance> consumer) {
+        final var query = balanceQuery(effectiveDate, customerIds);
+        streamingTemplate.query(query.sql(), rs -> consumer.accept(CUSTOMER_BALANCE_MAPPER.mapRow(rs, rs.getRow())),
+                query.parameters());
+    }
+
+    private static BalanceQuery balanceQuery(LocalDateTime effectiveDate, Collection<Integer> customerIds) {
+        String sql = """
+        SELECT c.customer_id, coalesce(r.rent_fees, 0) + coalesce(r.overdue_fees, 0) - coalesce(p.payments, 0) AS balance
+        FROM customer c
+        LEFT JOIN (
+            SELECT rental.customer_id,
+                   sum(film.rental_rate) AS rent_fees,
+                   sum(CASE
+                           WHEN (rental.return_date - rental.rental_date) > (film.rental_duration * '1 day'::interval)
+                           THEN EXTRACT(epoch FROM ((rental.return_date - rental.rental_date) - (film.rental_duration * '1 day'::interval)))::integer / 86400
+                           ELSE 0
+                       END) AS overdue_fees
+            FROM rental
+            JOIN inventory ON inventory.inventory_id = rental.inventory_id
+            JOIN film ON film.film_id = inventory.film_id
+            WHERE rental.rental_date <= ?%1$s
+            GROUP BY rental.customer_id
+        ) r ON r.customer_id = c.customer_id
+        LEFT JOIN (
+            SELECT payment.customer_id, sum(payment.amount) AS payments
+            FROM payment
+            WHERE payment.payment_date <= ?%2$s
+            GROUP BY payment.customer_id
+        ) p ON p.customer_id = c.customer_id%3$s
+        ORDER BY c.customer_id""".formatted(
+                customerIds == null ? "" : " AND rental.customer_id = ANY (?)",
+                customerIds == null ? "" : " AND payment.customer_id = ANY (?)",
+                customerIds == null ? "" : "\n        WHERE c.customer_id = ANY (?)"
+        );
+
+        final var date = new SqlParameterValue(Types.TIMESTAMP, effectiveDate);
+        final var parameters = new ArrayList<Object>();
+        parameters.add(date);
+        if (customerIds != null) {
+            parameters.add(PostgresTypes.integerArray(customerIds));
+        }
+        parameters.add(date);
+        if (customerIds != null) {
+            parameters.add(PostgresTypes.integerArray(customerIds));
+            parameters.add(PostgresTypes.integerArray(customerIds));
+        }
+        return new BalanceQuery(sql, parameters.toArray());
+    }
+
+    private record BalanceQuery(String sql, Object[] parameters) {
+    }
+}
@@ -1,13 +1,16 @@
 package de.workshops.dvdshack.repository;
 
-import io.hypersistence.utils.hibernate.type.array.ListArrayType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.LazyGroup;
 import org.hibernate.annotations.Type;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.Year;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 
 @Entity
@@ -15,13 +18,16 @@ public class Film extends BaseEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "FILM_ID_SEQ")
-    @SequenceGenerator(name = "FILM_ID_SEQ", sequenceName = "film_film_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "FILM_ID_SEQ", sequenceName = "film_film_id_seq", allocationSize = 50)
     @Column(name = "film_id", nullable = false)
     private int id;
 
     @Column(nullable = false)
     private String title;
 
+    // description and special features are only needed by the detail view, accessing one of them loads both
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("details")
     @Column(columnDefinition = "text")
     private String description;
 
@@ -29,11 +35,11 @@ public class Film extends BaseEntity {
     @Column(columnDefinition = "year")
     private Year releaseYear;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "language_id")
     private Language language;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "original_language_id")
     private Language originalLanguage;
 
@@ -53,7 +59,9 @@ public class Film extends BaseEntity {
     @Column(columnDefinition = "mpaa_rating")
     private Rating rating;
 
-    @Type(ListArrayType.class)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("details")
+    @JdbcTypeCode(SqlTypes.ARRAY)
     @Column(name = "special_features", columnDefinition = "text[]")
     private List<String> specialFeatures;
 
@@ -70,6 +78,7 @@ public class Film extends BaseEntity {
     Set<Actor> actors;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.FILM_CATEGORIES)
     @JoinTable(
             name = "film_category",
             joinColumns = @JoinColumn(
@@ -193,30 +202,18 @@ public class Film extends BaseEntity {
         this.categories = categories;
     }
 
+    // ids are assigned on persist, so new films are only equal to themselves and all films share one hash code,
+    // which stays the same when a film in a hash set is persisted; lazy attributes and associations are never touched
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Film film)) return false;
-        if (!super.equals(o)) return false;
-        return id == film.id
-                && rentalDuration == film.rentalDuration
-                && length == film.length
-                && Objects.equals(title, film.title)
-                && Objects.equals(description, film.description)
-                && Objects.equals(releaseYear, film.releaseYear)
-                && Objects.equals(language, film.language)
-                && Objects.equals(originalLanguage, film.originalLanguage)
-                && Objects.equals(rentalRate, film.rentalRate)
-                && Objects.equals(replacementCost, film.replacementCost)
-                && rating == film.rating
-                && Objects.equals(specialFeatures, film.specialFeatures)
-                && Objects.equals(actors, film.actors)
-                && Objects.equals(categories, film.categories);
+        return id != 0 && id == film.getId();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), id, title, description, releaseYear, language, originalLanguage, rentalDuration, rentalRate, length, replacementCost, rating, specialFeatures, actors, categories);
+        return Film.class.hashCode();
     }
 
     @Override
@@ -0,0 +1,172 @@
+package de.workshops.dvdshack.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented copy of the film table. Every film is addressed by its row index into the
+ * arrays; ratings and special features are kept as one bit set per value.
+ */
+final class FilmCatalogSnapshot {
+
+    // length of films without one, which no minimum length matches
+    private static final short NO_LENGTH = -1;
+
+    private final int[] ids;
+
+    private final String[] titles;
+
+    private final short[] lengths;
+
+    private final short[] rentalDurations;
+
+    private final Rating[] ratings;
+
+    private final BitSet[] rowsByRating;
+
+    private final List<String> specialFeatures;
+
+    private final Map<String, BitSet> rowsBySpecialFeature;
+
+    private final LocalDateTime lastUpdate;
+
+    private FilmCatalogSnapshot(Builder builder) {
+        final int size = builder.ids.size();
+        ids = new int[size];
+        titles = builder.titles.toArray(String[]::new);
+        lengths = new short[size];
+        rentalDurations = new short[size];
+        ratings = builder.ratings.toArray(Rating[]::new);
+        rowsByRating = new BitSet[Rating.values().length];
+        for (int i = 0; i < rowsByRating.length; i++) {
+            rowsByRating[i] = new BitSet(size);
+        }
+        specialFeatures = List.copyOf(builder.rowsBySpecialFeature.keySet());
+        rowsBySpecialFeature = Map.copyOf(builder.rowsBySpecialFeature);
+
+        for (int row = 0; row < size; row++) {
+            ids[row] = builder.ids.get(row);
+            lengths[row] = builder.lengths.get(row);
+            rentalDurations[row] = builder.rentalDurations.get(row);
+            if (ratings[row] != null) {
+                rowsByRating[ratings[row].ordinal()].set(row);
+            }
+        }
+        lastUpdate = builder.lastUpdate;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    LocalDateTime lastUpdate() {
+        return lastUpdate;
+    }
+
+    List<Film> findAllFilmsWithRating(Rating rating) {
+        final var rows = rowsByRating[rating.ordinal()];
+        final var films = new ArrayList<Film>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            final var film = newFilm(row);
+            film.setRating(ratings[row]);
+            films.add(film);
+        }
+        return films;
+    }
+
+    List<Film> findAllFilmsWithMinimumLength(int minutes) {
+        final var films = new ArrayList<Film>();
+        for (int row = 0; row < lengths.length; row++) {
+            if (lengths[row] != NO_LENGTH && lengths[row] >= minutes) {
+                final var film = newFilm(row);
+                film.setLength(lengths[row]);
+                films.add(film);
+            }
+        }
+        return films;
+    }
+
+    List<Film> findAllFilmsHavingSpecialFeature(String specialFeature) {
+        final var rows = rowsBySpecialFeature.get(specialFeature);
+        if (rows == null) {
+            return new ArrayList<>();
+        }
+
+        final var films = new ArrayList<Film>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            final var film = newFilm(row);
+            film.setSpecialFeatures(specialFeaturesOf(row));
+            films.add(film);
+        }
+        return films;
+    }
+
+    private Film newFilm(int row) {
+        final var film = new Film();
+        film.setId(ids[row]);
+        film.setTitle(titles[row]);
+        film.setRentalDuration(rentalDurations[row]);
+        return film;
+    }
+
+    private List<String> specialFeaturesOf(int row) {
+        final var features = new ArrayList<String>();
+        for (String feature : specialFeatures) {
+            if (rowsBySpecialFeature.get(feature).get(row)) {
+                features.add(feature);
+            }
+        }
+        return features;
+    }
+
+    static final class Builder {
+
+        private final List<Integer> ids = new ArrayList<>();
+
+        private final List<String> titles = new ArrayList<>();
+
+        private final List<Short> lengths = new ArrayList<>();
+
+        private final List<Short> rentalDurations = new ArrayList<>();
+
+        private final List<Rating> ratings = new ArrayList<>();
+
+        // insertion ordered, so that features are reported in the order they were first seen
+        private final Map<String, BitSet> rowsBySpecialFeature = new LinkedHashMap<>();
+
+        private LocalDateTime lastUpdate;
+
+        private Builder() {
+        }
+
+        Builder add(int id, String title, Short length, short rentalDuration, Rating rating, List<String> specialFeatures) {
+            final int row = ids.size();
+            ids.add(id);
+            titles.add(title);
+            lengths.add(length == null ? NO_LENGTH : length);
+            rentalDurations.add(rentalDuration);
+            ratings.add(rating);
+            for (String feature : specialFeatures) {
+                rowsBySpecialFeature.computeIfAbsent(feature, f -> new BitSet()).set(row);
+            }
+            return this;
+        }
+
+        Builder lastUpdate(LocalDateTime lastUpdate) {
+            this.lastUpdate = lastUpdate;
+            return this;
+        }
+
+        FilmCatalogSnapshot build() {
+            return new FilmCatalogSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package de.workshops.dvdshack.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Answers film lookups from an in-memory {@link FilmCatalogSnapshot}. The snapshot is loaded on first use
+ * and replaced as a whole whenever the film table has changed, i.e. its row count or latest last_update differ,
+ * or the {@link ChangeFeedRepository} reports films of transactions that committed after the snapshot was loaded.
+ */
+@Repository
+@Slf4j
+public class FilmCatalogSnapshotRepository implements FilmQueries {
+
+    private final JdbcTemplate template;
+
+    private final ChangeFeedRepository changeFeedRepository;
+
+    private volatile FilmCatalogSnapshot snapshot;
+
+    // changes at or after this position may have committed after the snapshot was loaded, i.e. those of the transactions
+    // open while loading
+    private volatile ChangePosition loadPosition;
+
+    public FilmCatalogSnapshotRepository(JdbcTemplate template, ChangeFeedRepository changeFeedRepository) {
+        this.template = template;
+        this.changeFeedRepository = changeFeedRepository;
+    }
+
+    @Override
+    public List<Film> findAllFilmsWithRating(Rating rating) {
+        return snapshot().findAllFilmsWithRating(rating);
+    }
+
+    @Override
+    public List<Film> findAllFilmsWithMinimumLength(int minutes) {
+        return snapshot().findAllFilmsWithMinimumLength(minutes);
+    }
+
+    @Override
+    public List<Film> findAllFilmsHavingSpecialFeature(String specialFeature) {
+        return snapshot().findAllFilmsHavingSpecialFeature(specialFeature);
+    }
+
+    @Scheduled(fixedDelayString = "${dvdshack.film-catalog-snapshot.refresh-interval:PT1M}")
+    public boolean refreshIfChanged() {
+        final var current = snapshot;
+        if (current == null) {
+            return false;
+        }
+
+        final var state = template.queryForObject(
+                "SELECT count(*) AS films, max(last_update) AS last_update FROM film",
+                (rs, rowNum) -> new TableState(rs.getInt("films"), toLocalDateTime(rs.getTimestamp("last_update")))
+        );
+        if (state.films() == current.size() && Objects.equals(state.lastUpdate(), current.lastUpdate())
+                && changeFeedRepository.findChanges(ChangeFeedTable.FILM, loadPosition, 1).isEmpty()) {
+            return false;
+        }
+
+        refresh();
+        return true;
+    }
+
+    public synchronized void refresh() {
+        final var builder = FilmCatalogSnapshot.builder();
+        final var lastUpdate = new LocalDateTime[1];
+        final var horizon = changeFeedRepository.horizon();
+
+        template.query("SELECT film_id, title, length, rental_duration, rating, special_features, last_update FROM film ORDER BY film_id", rs -> {
+            final var specialFeatures = PostgresTypes.getTextArray(rs, rs.findColumn("special_features"));
+            builder.add(
+                    rs.getInt("film_id"),
+                    rs.getString("title"),
+                    rs.getObject("length", Short.class),
+                    rs.getShort("rental_duration"),
+                    PostgresTypes.getRating(rs, rs.findColumn("rating")),
+                    specialFeatures == null ? List.of() : specialFeatures
+            );
+
+            final var rowLastUpdate = toLocalDateTime(rs.getTimestamp("last_update"));
+            if (lastUpdate[0] == null || rowLastUpdate.isAfter(lastUpdate[0])) {
+                lastUpdate[0] = rowLastUpdate;
+            }
+        });
+
+        loadPosition = ChangePosition.at(horizon);
+        snapshot = builder.lastUpdate(lastUpdate[0]).build();
+        log.info("Loaded film catalog snapshot with {} films", snapshot.size());
+    }
+
+    private FilmCatalogSnapshot snapshot() {
+        if (snapshot == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private record TableState(int films, LocalDateTime lastUpdate) {
+    }
+}
@@ -0,0 +1,87 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The independent parts of a film detail page, one query each, so they can be loaded concurrently.
+ */
+@Repository
+public class FilmDetailRepository {
+
+    private final JdbcTemplate template;
+
+    public FilmDetailRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    public Optional<Film> findFilm(int filmId) {
+        String sql = """
+        SELECT film_id, title, description, release_year, rental_duration, rental_rate, length, replacement_cost,
+               rating, special_features
+        FROM film
+        WHERE film_id = ?""";
+
+        return template.query(sql, new FilmRowMapper(), filmId).stream().findFirst();
+    }
+
+    public List<Actor> findActors(int filmId) {
+        String sql = """
+        SELECT a.actor_id, a.first_name, a.last_name, a.last_update
+        FROM film_actor fa
+        JOIN actor a ON a.actor_id = fa.actor_id
+        WHERE fa.film_id = ?
+        ORDER BY a.last_name, a.first_name, a.actor_id""";
+
+        return template.query(sql, new ActorRowMapper(), filmId);
+    }
+
+    public List<Category> findCategories(int filmId) {
+        String sql = """
+        SELECT c.category_id, c.name, c.last_update
+        FROM film_category fc
+        JOIN category c ON c.category_id = fc.category_id
+        WHERE fc.film_id = ?
+        ORDER BY c.name""";
+
+        return template.query(sql, new CategoryRowMapper(), filmId);
+    }
+
+    // the language of the film, followed by its original language if it has a different one
+    public List<Language> findLanguages(int filmId) {
+        String sql = """
+        SELECT l.language_id, l.name, l.last_update
+        FROM film f
+        JOIN language l ON l.language_id = f.language_id OR l.language_id = f.original_language_id
+        WHERE f.film_id = ?
+        ORDER BY l.language_id <> f.language_id""";
+
+        return template.query(sql, new LanguageRowMapper(), filmId);
+    }
+
+    public RentalStats findRentalStats(int filmId) {
+        String sql = """
+        SELECT count(*), count(*) FILTER (WHERE r.return_date IS NULL), max(r.rental_date),
+               coalesce((SELECT sum(p.amount) FROM payment p
+                         JOIN rental pr ON pr.rental_id = p.rental_id
+                         JOIN inventory pi ON pi.inventory_id = pr.inventory_id
+                         WHERE pi.film_id = ?), 0)
+        FROM rental r
+        JOIN inventory i ON i.inventory_id = r.inventory_id
+        WHERE i.film_id = ?""";
+
+        return template.queryForObject(sql, (rs, rowNum) -> {
+            final Timestamp lastRentalDate = rs.getTimestamp(3);
+            return new RentalStats(
+                    rs.getInt(1),
+                    rs.getInt(2),
+                    lastRentalDate == null ? null : lastRentalDate.toLocalDateTime(),
+                    rs.getBigDecimal(4)
+            );
+        }, filmId, filmId);
+    }
+}
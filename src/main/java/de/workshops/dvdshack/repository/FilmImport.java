@@ -0,0 +1,32 @@
+package de.workshops.dvdshack.repository;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Year;
+import java.util.List;
+
+/**
+ * Film to be imported by the {@link FilmImportRepository}, referring to its languages, categories and actors by
+ * name. Title, language, rental duration, rental rate and replacement cost are required.
+ */
+@Builder
+public record FilmImport(
+        String title,
+        String description,
+        Year releaseYear,
+        String language,
+        String originalLanguage,
+        Short rentalDuration,
+        BigDecimal rentalRate,
+        Short length,
+        BigDecimal replacementCost,
+        Rating rating,
+        List<String> specialFeatures,
+        List<String> categories,
+        List<ActorName> actors
+) {
+
+    public record ActorName(String firstName, String lastName) {
+    }
+}
@@ -0,0 +1,17 @@
+package de.workshops.dvdshack.repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a film import. Rejected films lack a required value, refer to an unknown language, category or actor,
+ * or were part of a batch that failed to be written. {@code errors} describes the first few of them.
+ */
+public record FilmImportReport(long filmsRead, long filmsRejected, long filmsImported, long actorLinks,
+                               long categoryLinks, Duration duration, List<String> errors) {
+
+    public double filmsPerSecond() {
+        final var nanos = duration.toNanos();
+        return nanos == 0 ? 0 : filmsImported * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,305 @@
+package de.workshops.dvdshack.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports films together with their actor and category links. Languages, categories and actors are looked up by
+ * name, ignoring case, in maps loaded once per import; of actors sharing a name the one with the lowest id is taken.
+ * <p>
+ * The films are written in batches of batch-size, each in a transaction of its own, independent of the caller's.
+ * A batch takes its film ids from the film sequence with one query and writes its films, film_actor and film_category
+ * rows with one COPY each. If a batch fails, its films are rejected and the import continues with the next batch.
+ */
+@Repository
+@Slf4j
+public class FilmImportRepository {
+
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final JdbcTemplate template;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public FilmImportRepository(
+            JdbcTemplate template,
+            TransactionTemplate transactionTemplate,
+            @Value("${dvdshack.film-import.batch-size:1000}") int batchSize
+    ) {
+        this.template = template;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+    }
+
+    public FilmImportReport importFilms(Iterable<FilmImport> films) {
+        final long start = System.nanoTime();
+        final var references = loadReferences();
+        final var progress = new Progress();
+
+        final var batch = new ArrayList<ResolvedFilm>(batchSize);
+        for (FilmImport film : films) {
+            progress.filmsRead++;
+            final var resolved = resolve(film, progress.filmsRead, references, progress);
+            if (resolved == null) {
+                progress.filmsRejected++;
+                continue;
+            }
+            batch.add(resolved);
+            if (batch.size() == batchSize) {
+                write(batch, references.filmIdIncrement(), progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, references.filmIdIncrement(), progress);
+        }
+
+        final var report = new FilmImportReport(progress.filmsRead, progress.filmsRejected, progress.filmsImported,
+                progress.actorLinks, progress.categoryLinks, Duration.ofNanos(System.nanoTime() - start),
+                List.copyOf(progress.errors));
+        log.info("Imported {} films with {} actor and {} category links in {} ms ({} films/s), {} rejected",
+                report.filmsImported(), report.actorLinks(), report.categoryLinks(), report.duration().toMillis(),
+                Math.round(report.filmsPerSecond()), report.filmsRejected());
+        return report;
+    }
+
+    private References loadReferences() {
+        final var languages = new HashMap<String, Integer>();
+        template.query("SELECT language_id, name FROM language", (RowCallbackHandler) rs ->
+                languages.put(key(rs.getString(2)), rs.getInt(1)));
+
+        final var categories = new HashMap<String, Integer>();
+        template.query("SELECT category_id, name FROM category", (RowCallbackHandler) rs ->
+                categories.put(key(rs.getString(2)), rs.getInt(1)));
+
+        final var actors = new HashMap<String, Integer>();
+        template.query("SELECT actor_id, first_name, last_name FROM actor ORDER BY actor_id DESC", (RowCallbackHandler) rs ->
+                actors.put(key(rs.getString(2), rs.getString(3)), rs.getInt(1)));
+
+        final int filmIdIncrement = template.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = 'film_film_id_seq'", Integer.class);
+        return new References(languages, categories, actors, filmIdIncrement);
+    }
+
+    private static ResolvedFilm resolve(FilmImport film, long number, References references, Progress progress) {
+        if (film.title() == null || film.title().isBlank() || film.language() == null || film.rentalDuration() == null
+                || film.rentalRate() == null || film.replacementCost() == null) {
+            progress.error("Film %d: title, language, rental duration, rental rate and replacement cost are required"
+                    .formatted(number));
+            return null;
+        }
+
+        final var languageId = references.languages().get(key(film.language()));
+        if (languageId == null) {
+            progress.error("Film %d: unknown language \"%s\"".formatted(number, film.language()));
+            return null;
+        }
+        Integer originalLanguageId = null;
+        if (film.originalLanguage() != null) {
+            originalLanguageId = references.languages().get(key(film.originalLanguage()));
+            if (originalLanguageId == null) {
+                progress.error("Film %d: unknown language \"%s\"".formatted(number, film.originalLanguage()));
+                return null;
+            }
+        }
+
+        final var categoryIds = new LinkedHashSet<Integer>();
+        for (String category : film.categories() == null ? List.<String>of() : film.categories()) {
+            final var categoryId = references.categories().get(key(category));
+            if (categoryId == null) {
+                progress.error("Film %d: unknown category \"%s\"".formatted(number, category));
+                return null;
+            }
+            categoryIds.add(categoryId);
+        }
+
+        final var actorIds = new LinkedHashSet<Integer>();
+        for (FilmImport.ActorName actor : film.actors() == null ? List.<FilmImport.ActorName>of() : film.actors()) {
+            final var actorId = references.actors().get(key(actor.firstName(), actor.lastName()));
+            if (actorId == null) {
+                progress.error("Film %d: unknown actor \"%s %s\"".formatted(number, actor.firstName(), actor.lastName()));
+                return null;
+            }
+            actorIds.add(actorId);
+        }
+
+        return new ResolvedFilm(number, film, languageId, originalLanguageId, List.copyOf(actorIds), List.copyOf(categoryIds));
+    }
+
+    private void write(List<ResolvedFilm> batch, int filmIdIncrement, Progress progress) {
+        try {
+            final var links = transactionTemplate.execute(status -> template.execute(
+                    (ConnectionCallback<long[]>) connection -> copy(connection, batch, filmIdIncrement)));
+            progress.filmsImported += batch.size();
+            progress.actorLinks += links[0];
+            progress.categoryLinks += links[1];
+        } catch (RuntimeException e) {
+            log.warn("Writing a batch of {} films failed", batch.size(), e);
+            progress.filmsRejected += batch.size();
+            progress.error("Films %d to %d: %s".formatted(
+                    batch.get(0).number(), batch.get(batch.size() - 1).number(), e.getMessage()));
+        }
+    }
+
+    // returns the number of actor and category links written
+    private long[] copy(Connection connection, List<ResolvedFilm> batch, int filmIdIncrement) throws SQLException {
+        final var filmIds = allocateFilmIds(connection, batch.size(), filmIdIncrement);
+
+        final var films = new StringBuilder(batch.size() * 256);
+        final var filmActors = new StringBuilder();
+        final var filmCategories = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            final var resolved = batch.get(i);
+            final var film = resolved.film();
+            final int filmId = filmIds.get(i);
+
+            films.append(filmId);
+            field(films, film.title());
+            field(films, film.description());
+            field(films, film.releaseYear() == null ? null : film.releaseYear().getValue());
+            field(films, resolved.languageId());
+            field(films, resolved.originalLanguageId());
+            field(films, film.rentalDuration());
+            field(films, film.rentalRate().toPlainString());
+            field(films, film.length());
+            field(films, film.replacementCost().toPlainString());
+            field(films, film.rating() == null ? null : PostgresTypes.RATING_CONVERTER.toRelationalValue(film.rating()));
+            field(films, film.specialFeatures() == null ? null : arrayLiteral(film.specialFeatures()));
+            films.append('\n');
+
+            for (Integer actorId : resolved.actorIds()) {
+                filmActors.append(actorId).append('\t').append(filmId).append('\n');
+            }
+            for (Integer categoryId : resolved.categoryIds()) {
+                filmCategories.append(filmId).append('\t').append(categoryId).append('\n');
+            }
+        }
+
+        final var copyApi = connection.unwrap(PGConnection.class).getCopyAPI();
+        try {
+            copyApi.copyIn("""
+                    COPY film (film_id, title, description, release_year, language_id, original_language_id,
+                               rental_duration, rental_rate, length, replacement_cost, rating, special_features)
+                    FROM STDIN""", new StringReader(films.toString()));
+            final long actorLinks = copyApi.copyIn("COPY film_actor (actor_id, film_id) FROM STDIN",
+                    new StringReader(filmActors.toString()));
+            final long categoryLinks = copyApi.copyIn("COPY film_category (film_id, category_id) FROM STDIN",
+                    new StringReader(filmCategories.toString()));
+            return new long[]{actorLinks, categoryLinks};
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing films to COPY failed", e);
+        }
+    }
+
+    // ids are handed out in blocks matching the increment of the sequence, like the pooled-lo optimizer does
+    private static List<Integer> allocateFilmIds(Connection connection, int count, int increment) throws SQLException {
+        final var ids = new ArrayList<Integer>(count);
+        try (var statement = connection.prepareStatement("SELECT nextval('film_film_id_seq') FROM generate_series(1, ?)")) {
+            statement.setInt(1, (count + increment - 1) / increment);
+            try (var rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    final int first = rs.getInt(1);
+                    for (int i = 0; i < increment && ids.size() < count; i++) {
+                        ids.add(first + i);
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    // a column of a COPY text row, after the first one
+    private static void field(StringBuilder row, Object value) {
+        row.append('\t');
+        if (value == null) {
+            row.append("\\N");
+            return;
+        }
+        final var text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> row.append("\\\\");
+                case '\t' -> row.append("\\t");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                default -> row.append(c);
+            }
+        }
+    }
+
+    private static String arrayLiteral(List<String> values) {
+        final var literal = new StringBuilder("{");
+        for (String value : values) {
+            if (literal.length() > 1) {
+                literal.append(',');
+            }
+            if (value == null) {
+                literal.append("NULL");
+            } else {
+                literal.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+        }
+        return literal.append('}').toString();
+    }
+
+    private static String key(String name) {
+        return name == null ? null : name.strip().toUpperCase(Locale.ROOT);
+    }
+
+    private static String key(String firstName, String lastName) {
+        return firstName == null || lastName == null ? null : key(firstName) + ' ' + key(lastName);
+    }
+
+    private record References(Map<String, Integer> languages, Map<String, Integer> categories,
+                              Map<String, Integer> actors, int filmIdIncrement) {
+    }
+
+    private record ResolvedFilm(long number, FilmImport film, int languageId, Integer originalLanguageId, List<Integer> actorIds,
+                                List<Integer> categoryIds) {
+    }
+
+    private static class Progress {
+
+        private final List<String> errors = new ArrayList<>();
+
+        private long filmsRead;
+
+        private long filmsRejected;
+
+        private long filmsImported;
+
+        private long actorLinks;
+
+        private long categoryLinks;
+
+        private void error(String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
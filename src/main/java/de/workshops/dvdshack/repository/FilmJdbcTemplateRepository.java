@@ -1,44 +1,69 @@
 package de.workshops.dvdshack.repository;
 
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.Array;
 import java.time.Year;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
-public class FilmJdbcTemplateRepository {
+public class FilmJdbcTemplateRepository implements FilmQueries {
 
     private final JdbcTemplate template;
 
     private final NamedParameterJdbcTemplate namedTemplate;
 
-    public FilmJdbcTemplateRepository(JdbcTemplate template, NamedParameterJdbcTemplate namedTemplate) {
+    private final StreamingJdbcTemplate streamingTemplate;
+
+    public FilmJdbcTemplateRepository(
+            JdbcTemplate template,
+            NamedParameterJdbcTemplate namedTemplate,
+            @Value("${dvdshack.jdbc.stream-fetch-size:1000}") int streamFetchSize
+    ) {
         this.template = template;
         this.namedTemplate = namedTemplate;
+        this.streamingTemplate = new StreamingJdbcTemplate(template.getDataSource(), streamFetchSize);
     }
 
     public Integer findNumberOfFilmsPublishedInYear(Year year) {
         String sql = "SELECT count(film_id) FROM film WHERE release_year=?";
 
-        return template.queryForObject(sql, Integer.class, year.getValue());
+        return template.queryForObject(sql, Integer.class, PostgresTypes.year(year));
     }
 
+    @Override
     public List<Film> findAllFilmsWithRating(Rating rating) {
-        final var ratingEnumValueConverter = new RatingEnumValueConverter(null, null);
-        String sql = "SELECT film_id as id, title, rating FROM film WHERE rating='%s'".formatted(ratingEnumValueConverter.toRelationalValue(rating));
-
-        return template.query(sql, (rs, rowNum) -> {
-            final var film = new Film();
-            film.setId(rs.getInt(rs.findColumn("id")));
-            film.setTitle(rs.getString(rs.findColumn("title")));
-            film.setRating(ratingEnumValueConverter.toDomainValue(rs.getString(rs.findColumn("rating"))));
-            return film;
-        });
+        String sql = "SELECT film_id as id, title, rating FROM film WHERE rating=?";
+
+        return template.query(sql, new FilmRowMapper(), PostgresTypes.rating(rating));
+    }
+
+    // pass the "next" token of the previous page as "after", or null for the first page
+    public KeysetPage<Film> scrollFilmsWithRating(Rating rating, ScrollToken after, int size) {
+        String sql = """
+        SELECT film_id as id, title, rating
+        FROM film
+        WHERE rating = ?%s
+        ORDER BY title, film_id
+        LIMIT ?""".formatted(after == null ? "" : " AND (title, film_id) > (?, ?)");
+
+        final var parameters = new ArrayList<Object>();
+        parameters.add(PostgresTypes.rating(rating));
+        if (after != null) {
+            parameters.add(after.sortKey());
+            parameters.add(after.id());
+        }
+        parameters.add(size + 1);
+
+        final var films = template.query(sql, new FilmRowMapper(), parameters.toArray());
+        return KeysetPage.of(films, size, film -> new ScrollToken(film.getTitle(), film.getId()));
     }
 
     public List<Film> findAllFilmsWithActor(Actor actor) {
@@ -53,28 +78,50 @@ public class FilmJdbcTemplateRepository {
         parameter.addValue("firstname", actor.getFirstName());
         parameter.addValue("lastname", actor.getLastName());
 
-        return namedTemplate.query(sql, parameter, new BeanPropertyRowMapper<>(Film.class));
+        return namedTemplate.query(sql, parameter, new FilmRowMapper());
     }
 
+    @Override
     public List<Film> findAllFilmsWithMinimumLength(int minutes) {
         String sql = "SELECT film_id as id, title, length FROM film WHERE length >= ?";
 
-        return template.query(sql, new BeanPropertyRowMapper<>(Film.class), minutes);
+        return template.query(sql, new FilmRowMapper(), minutes);
     }
 
+    // must be called within a transaction, and the stream must be closed
+    public Stream<Film> streamAllFilmsWithMinimumLength(int minutes) {
+        String sql = "SELECT film_id as id, title, length FROM film WHERE length >= ?";
+
+        return streamingTemplate.queryForStream(sql, new FilmRowMapper(), minutes);
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachFilmWithMinimumLength(int minutes, Consumer<Film> consumer) {
+        String sql = "SELECT film_id as id, title, length FROM film WHERE length >= ?";
+
+        final var rowMapper = new FilmRowMapper();
+        streamingTemplate.query(sql, rs -> consumer.accept(rowMapper.mapRow(rs, rs.getRow())), minutes);
+    }
+
+    @Override
     public List<Film> findAllFilmsHavingSpecialFeature(String specialFeature) {
         String sql = "SELECT film_id as id, title, special_features FROM film WHERE ? = ANY (special_features)";
 
-        return template.query(sql, (rs, rowNum) -> {
-            final var film = new Film();
-            film.setId(rs.getInt("id"));
-            film.setTitle(rs.getString("title"));
-            Object obj = rs.getObject("special_features");
-            if (obj instanceof Array array) {
-                final String[] stringArray = (String[]) array.getArray();
-                film.setSpecialFeatures(List.of(stringArray));
-            }
-            return film;
-        }, specialFeature);
+        return template.query(sql, new FilmRowMapper(), specialFeature);
+    }
+
+    // must be called within a transaction, and the stream must be closed
+    public Stream<Film> streamAllFilmsHavingSpecialFeature(String specialFeature) {
+        String sql = "SELECT film_id as id, title, special_features FROM film WHERE ? = ANY (special_features)";
+
+        return streamingTemplate.queryForStream(sql, new FilmRowMapper(), specialFeature);
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachFilmHavingSpecialFeature(String specialFeature, Consumer<Film> consumer) {
+        String sql = "SELECT film_id as id, title, special_features FROM film WHERE ? = ANY (special_features)";
+
+        final var rowMapper = new FilmRowMapper();
+        streamingTemplate.query(sql, rs -> consumer.accept(rowMapper.mapRow(rs, rs.getRow())), specialFeature);
     }
 }
@@ -1,14 +1,28 @@
 package de.workshops.dvdshack.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Year;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface FilmJpaRepository extends JpaRepository<Film, Integer> {
+public interface FilmJpaRepository extends JpaRepository<Film, Integer>, BatchingRepository<Film> {
 
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheRegions.FILM_COUNTS)
+    })
     int countFilmsByReleaseYear(Year releaseYear);
 
     List<Film> findAllFilmsByRating(Rating rating);
@@ -21,4 +35,33 @@ public interface FilmJpaRepository extends JpaRepository<Film, Integer> {
     //    List<Film> findAllFilmsMatchingExactlyBySpecialFeatures(List<String> specialFeatures);
 
     List<Film> findByTitleAndReleaseYearOrLength(String title, Year releaseYear, int length);
+
+    Window<Film> findByRatingOrderByTitleAscIdAsc(Rating rating, ScrollPosition position, Limit limit);
+
+    // pass the "next" token of the previous page as "after", or null for the first page
+    default KeysetPage<Film> scrollByRating(Rating rating, ScrollToken after, int size) {
+        final var window = findByRatingOrderByTitleAscIdAsc(rating, KeysetPage.positionAfter(after, "title"), Limit.of(size));
+        return KeysetPage.of(window, film -> new ScrollToken(film.getTitle(), film.getId()));
+    }
+
+    // The finders below fetch the languages along with the films. Both collections are loaded by separate
+    // queries, since fetching them together would multiply the rows of every film (actors x categories).
+
+    @EntityGraph(attributePaths = {"language", "originalLanguage"})
+    List<Film> findAllWithLanguagesByRating(Rating rating);
+
+    @EntityGraph(attributePaths = {"language", "originalLanguage"})
+    List<Film> findAllWithLanguagesByActorsIs(Actor actor);
+
+    @EntityGraph(attributePaths = {"language", "originalLanguage"})
+    List<Film> findAllWithLanguagesByLengthGreaterThanEqual(int minutes);
+
+    @EntityGraph(attributePaths = {"language", "originalLanguage"})
+    List<Film> findAllWithLanguagesByTitleAndReleaseYearOrLength(String title, Year releaseYear, int length);
+
+    @Query("SELECT f FROM Film f LEFT JOIN FETCH f.actors WHERE f.id IN :ids")
+    List<Film> fetchActorsOfFilms(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT f FROM Film f LEFT JOIN FETCH f.categories WHERE f.id IN :ids")
+    List<Film> fetchCategoriesOfFilms(@Param("ids") Collection<Integer> ids);
 }
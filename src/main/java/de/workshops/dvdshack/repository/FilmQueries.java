@@ -0,0 +1,16 @@
+package de.workshops.dvdshack.repository;
+
+import java.util.List;
+
+/**
+ * Film lookups answered either by the database ({@link FilmJdbcTemplateRepository}) or by the in-memory
+ * {@link FilmCatalogSnapshotRepository}.
+ */
+public interface FilmQueries {
+
+    List<Film> findAllFilmsWithRating(Rating rating);
+
+    List<Film> findAllFilmsWithMinimumLength(int minutes);
+
+    List<Film> findAllFilmsHavingSpecialFeature(String specialFeature);
+}
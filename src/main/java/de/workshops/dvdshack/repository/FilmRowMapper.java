@@ -0,0 +1,71 @@
+package de.workshops.dvdshack.repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+public class FilmRowMapper extends IndexedRowMapper<Film> {
+
+    private static final int ID = 0;
+    private static final int TITLE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int RELEASE_YEAR = 3;
+    private static final int RENTAL_DURATION = 4;
+    private static final int RENTAL_RATE = 5;
+    private static final int LENGTH = 6;
+    private static final int REPLACEMENT_COST = 7;
+    private static final int RATING = 8;
+    private static final int SPECIAL_FEATURES = 9;
+
+    public FilmRowMapper() {
+        super(List.of(
+                List.of("id", "film_id"),
+                List.of("title"),
+                List.of("description"),
+                List.of("release_year"),
+                List.of("rental_duration"),
+                List.of("rental_rate"),
+                List.of("length"),
+                List.of("replacement_cost"),
+                List.of("rating"),
+                List.of("special_features")
+        ));
+    }
+
+    @Override
+    protected Film mapRow(ResultSet rs, int[] columnIndexes) throws SQLException {
+        final var film = new Film();
+        if (columnIndexes[ID] > 0) {
+            film.setId(rs.getInt(columnIndexes[ID]));
+        }
+        if (columnIndexes[TITLE] > 0) {
+            film.setTitle(rs.getString(columnIndexes[TITLE]));
+        }
+        if (columnIndexes[DESCRIPTION] > 0) {
+            film.setDescription(rs.getString(columnIndexes[DESCRIPTION]));
+        }
+        if (columnIndexes[RELEASE_YEAR] > 0) {
+            film.setReleaseYear(PostgresTypes.getYear(rs, columnIndexes[RELEASE_YEAR]));
+        }
+        if (columnIndexes[RENTAL_DURATION] > 0) {
+            film.setRentalDuration(rs.getShort(columnIndexes[RENTAL_DURATION]));
+        }
+        if (columnIndexes[RENTAL_RATE] > 0) {
+            film.setRentalRate(rs.getObject(columnIndexes[RENTAL_RATE], BigDecimal.class));
+        }
+        if (columnIndexes[LENGTH] > 0) {
+            film.setLength(rs.getShort(columnIndexes[LENGTH]));
+        }
+        if (columnIndexes[REPLACEMENT_COST] > 0) {
+            film.setReplacementCost(rs.getObject(columnIndexes[REPLACEMENT_COST], BigDecimal.class));
+        }
+        if (columnIndexes[RATING] > 0) {
+            film.setRating(PostgresTypes.getRating(rs, columnIndexes[RATING]));
+        }
+        if (columnIndexes[SPECIAL_FEATURES] > 0) {
+            film.setSpecialFeatures(PostgresTypes.getTextArray(rs, columnIndexes[SPECIAL_FEATURES]));
+        }
+        return film;
+    }
+}
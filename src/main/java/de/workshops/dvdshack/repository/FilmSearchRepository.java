@@ -0,0 +1,71 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Searches films by the {@code fulltext} tsvector column, which the film_fulltext_trigger maintains from title and
+ * description. Results are ordered by rank, and the headlines are only built for the rows of the requested page.
+ */
+@Repository
+public class FilmSearchRepository {
+
+    private final JdbcTemplate template;
+
+    public FilmSearchRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    // query uses the web search syntax, e.g. "dinosaur -boat" or "\"mad scientist\""
+    // pass the "next" token of the previous page as "after", or null for the first page
+    public KeysetPage<FilmSearchResult> searchFilms(String query, ScrollToken after, int size) {
+        if (query == null || query.isBlank()) {
+            return new KeysetPage<>(List.of(), null);
+        }
+
+        String sql = """
+        SELECT film_id, title, rank, ts_headline('english', description, query, 'MaxFragments=2, MinWords=5, MaxWords=15') AS headline
+        FROM (
+            SELECT *
+            FROM (
+                SELECT f.film_id, f.title, f.description, q.query, ts_rank(f.fulltext, q.query) AS rank
+                FROM film f, websearch_to_tsquery('english', ?) q(query)
+                WHERE f.fulltext @@ q.query
+            ) matches%s
+            ORDER BY rank DESC, film_id
+            LIMIT ?
+        ) page
+        ORDER BY rank DESC, film_id""".formatted(after == null ? "" : "\n            WHERE rank < ? OR (rank = ? AND film_id > ?)");
+
+        final var parameters = new ArrayList<Object>();
+        parameters.add(query);
+        if (after != null) {
+            final var rank = new SqlParameterValue(Types.REAL, rankOf(after));
+            parameters.add(rank);
+            parameters.add(rank);
+            parameters.add(after.id());
+        }
+        parameters.add(size + 1);
+
+        final var results = template.query(sql, (rs, rowNum) -> new FilmSearchResult(
+                rs.getInt(1),
+                rs.getString(2),
+                rs.getFloat(3),
+                rs.getString(4)
+        ), parameters.toArray());
+        return KeysetPage.of(results, size, result -> new ScrollToken(Float.toString(result.rank()), result.id()));
+    }
+
+    private static float rankOf(ScrollToken after) {
+        try {
+            return Float.parseFloat(after.sortKey());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid scroll token: " + after.encode(), e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package de.workshops.dvdshack.repository;
+
+/**
+ * A film matching a full-text search. {@code headline} is an excerpt of the description with the matching words
+ * enclosed in {@code <b>} tags.
+ */
+public record FilmSearchResult(int id, String title, float rank, String headline) {
+}
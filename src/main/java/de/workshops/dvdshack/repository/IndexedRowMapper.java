@@ -0,0 +1,58 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Row mapper resolving the column indexes once per result set instead of once per row. Each column is
+ * looked up by a list of accepted labels, e.g. "id" or "film_id"; columns missing from the result set get the
+ * index 0 and are skipped by the subclasses. Instances are not thread-safe, so use one per query.
+ */
+public abstract class IndexedRowMapper<T> implements RowMapper<T> {
+
+    private final List<List<String>> columns;
+
+    private ResultSet resultSet;
+
+    private int[] columnIndexes;
+
+    protected IndexedRowMapper(List<List<String>> columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public final T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (rs != resultSet) {
+            columnIndexes = resolveColumnIndexes(rs);
+            resultSet = rs;
+        }
+        return mapRow(rs, columnIndexes);
+    }
+
+    protected abstract T mapRow(ResultSet rs, int[] columnIndexes) throws SQLException;
+
+    private int[] resolveColumnIndexes(ResultSet rs) throws SQLException {
+        final var metaData = rs.getMetaData();
+        final var indexByLabel = new HashMap<String, Integer>();
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            indexByLabel.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+
+        final var indexes = new int[columns.size()];
+        for (int column = 0; column < indexes.length; column++) {
+            for (String label : columns.get(column)) {
+                final var index = indexByLabel.get(label);
+                if (index != null) {
+                    indexes[column] = index;
+                    break;
+                }
+            }
+        }
+        return indexes;
+    }
+}
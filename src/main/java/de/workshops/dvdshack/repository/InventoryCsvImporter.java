@@ -0,0 +1,228 @@
+package de.workshops.dvdshack.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams an inventory CSV file, one "film_id,store_id" line per copy, into Postgres via COPY.
+ * <p>
+ * A separate thread reads, parses and validates the lines and hands them over in chunks, while the calling thread
+ * writes the chunks to the COPY stream of a temporary staging table. Afterwards the rows referring to an existing
+ * film and store are merged into inventory with a single statement. The connection must be within a transaction,
+ * which the staging table lives in.
+ */
+@Slf4j
+public class InventoryCsvImporter {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int QUEUED_CHUNKS = 16;
+
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private static final byte[] END_OF_DATA = new byte[0];
+
+    private final Connection connection;
+
+    public InventoryCsvImporter(Connection connection) {
+        this.connection = connection;
+    }
+
+    public InventoryImportReport importCsv(InputStream csv) throws SQLException, IOException {
+        if (connection.getAutoCommit()) {
+            throw new IllegalStateException("Inventory imports must run within a transaction");
+        }
+        final long start = System.nanoTime();
+
+        try (var statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE inventory_import (line integer, film_id integer, store_id integer) ON COMMIT DROP");
+        }
+
+        final var parser = new Parser(csv);
+        final var copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY inventory_import (line, film_id, store_id) FROM STDIN (FORMAT csv)");
+        final var executor = Executors.newSingleThreadExecutor(runnable -> {
+            final var thread = new Thread(runnable, "inventory-import-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final Future<?> parsing = executor.submit(() -> {
+                parser.run();
+                return null;
+            });
+            copyChunks(parser.chunks, copyIn);
+            awaitParser(parsing);
+            copyIn.endCopy();
+        } finally {
+            // a parser blocked on the full queue gives up instead of waiting for chunks nobody takes anymore,
+            // before cancelling the copy, which fails as well if the connection is lost
+            parser.cancelled = true;
+            executor.shutdownNow();
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        final var errors = new ArrayList<>(parser.errors);
+        final long rowsImported;
+        final long linesRejected;
+        try (var statement = connection.createStatement()) {
+            try (var rs = statement.executeQuery("""
+                    WITH merged AS (
+                        INSERT INTO inventory (film_id, store_id)
+                        SELECT s.film_id, s.store_id
+                        FROM inventory_import s
+                        WHERE EXISTS (SELECT 1 FROM film f WHERE f.film_id = s.film_id)
+                          AND EXISTS (SELECT 1 FROM store st WHERE st.store_id = s.store_id)
+                        ORDER BY s.line
+                        RETURNING 1
+                    )
+                    SELECT count(*) FROM merged""")) {
+                rs.next();
+                rowsImported = rs.getLong(1);
+            }
+            linesRejected = parser.linesValid - rowsImported;
+            if (linesRejected > 0) {
+                try (var rs = statement.executeQuery("""
+                        SELECT s.line FROM inventory_import s
+                        WHERE NOT EXISTS (SELECT 1 FROM film f WHERE f.film_id = s.film_id)
+                           OR NOT EXISTS (SELECT 1 FROM store st WHERE st.store_id = s.store_id)
+                        ORDER BY s.line
+                        LIMIT %d""".formatted(MAX_REPORTED_ERRORS))) {
+                    while (rs.next() && errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("Line %d: unknown film or store".formatted(rs.getInt(1)));
+                    }
+                }
+            }
+        }
+
+        final var report = new InventoryImportReport(parser.linesRead, parser.linesRead - parser.linesValid,
+                linesRejected, rowsImported, Duration.ofNanos(System.nanoTime() - start), List.copyOf(errors));
+        log.info("Imported {} inventory rows in {} ms ({} rows/s), {} invalid and {} rejected lines",
+                report.rowsImported(), report.duration().toMillis(), Math.round(report.rowsPerSecond()),
+                report.linesInvalid(), report.linesRejected());
+        return report;
+    }
+
+    private static void copyChunks(BlockingQueue<byte[]> chunks, CopyIn copyIn) throws SQLException, IOException {
+        try {
+            for (var chunk = chunks.take(); chunk != END_OF_DATA; chunk = chunks.take()) {
+                copyIn.writeToCopy(chunk, 0, chunk.length);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing inventory");
+        }
+    }
+
+    private static void awaitParser(Future<?> parsing) throws IOException {
+        try {
+            parsing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing inventory");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("Parsing the inventory file failed", e.getCause());
+        }
+    }
+
+    // produces the chunks on the parser thread, the counters are read after it has finished
+    private static class Parser {
+
+        private final InputStream csv;
+
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+
+        private final List<String> errors = new ArrayList<>();
+
+        private volatile boolean cancelled;
+
+        private long linesRead;
+
+        private long linesValid;
+
+        Parser(InputStream csv) {
+            this.csv = csv;
+        }
+
+        void run() throws IOException, InterruptedException {
+            try (var reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+                final var chunk = new StringBuilder(CHUNK_SIZE + 64);
+                int lineNumber = 0;
+                for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && line.strip().equalsIgnoreCase("film_id,store_id"))) {
+                        continue;
+                    }
+                    linesRead++;
+
+                    final var row = parse(line);
+                    if (row == null) {
+                        if (errors.size() < MAX_REPORTED_ERRORS) {
+                            errors.add("Line %d: expected two positive ids, got \"%s\"".formatted(lineNumber, line));
+                        }
+                        continue;
+                    }
+                    linesValid++;
+
+                    chunk.append(lineNumber).append(',').append(row[0]).append(',').append(row[1]).append('\n');
+                    if (chunk.length() >= CHUNK_SIZE) {
+                        put(chunk.toString().getBytes(StandardCharsets.UTF_8));
+                        chunk.setLength(0);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    put(chunk.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            } finally {
+                // also after a failure, to stop the copying thread, unless that one has stopped itself
+                put(END_OF_DATA);
+            }
+        }
+
+        private void put(byte[] chunk) throws InterruptedException {
+            while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (cancelled) {
+                    throw new InterruptedException("Inventory import cancelled");
+                }
+            }
+        }
+
+        private static int[] parse(String line) {
+            final int comma = line.indexOf(',');
+            if (comma < 0 || line.indexOf(',', comma + 1) >= 0) {
+                return null;
+            }
+            try {
+                final int filmId = Integer.parseInt(line.substring(0, comma).strip());
+                final int storeId = Integer.parseInt(line.substring(comma + 1).strip());
+                return filmId > 0 && storeId > 0 ? new int[]{filmId, storeId} : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
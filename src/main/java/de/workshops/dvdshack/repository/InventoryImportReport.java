@@ -0,0 +1,17 @@
+package de.workshops.dvdshack.repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of an inventory import. Invalid lines couldn't be parsed, rejected lines refer to an unknown film or
+ * store. {@code errors} describes the first few of both.
+ */
+public record InventoryImportReport(long linesRead, long linesInvalid, long linesRejected, long rowsImported,
+                                    Duration duration, List<String> errors) {
+
+    public double rowsPerSecond() {
+        final var nanos = duration.toNanos();
+        return nanos == 0 ? 0 : rowsImported * 1_000_000_000.0 / nanos;
+    }
+}
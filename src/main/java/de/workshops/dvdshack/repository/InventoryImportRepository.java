@@ -0,0 +1,32 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+@Repository
+public class InventoryImportRepository {
+
+    private final JdbcTemplate template;
+
+    public InventoryImportRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    // see InventoryCsvImporter, either all valid rows are imported or none
+    @Transactional
+    public InventoryImportReport importInventory(InputStream csv) {
+        return template.execute((ConnectionCallback<InventoryImportReport>) connection -> {
+            try {
+                return new InventoryCsvImporter(connection).importCsv(csv);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Reading the inventory file failed", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Counts stock in bulk instead of calling film_in_stock per film and store. An item is in stock unless it has a
+ * rental without return date, just like inventory_in_stock decides.
+ */
+@Repository
+public class InventoryJdbcTemplateRepository {
+
+    private static final String STOCK_COUNTS = """
+        SELECT i.film_id, i.store_id, count(*) AS copies,
+               count(*) FILTER (WHERE NOT EXISTS (
+                   SELECT 1 FROM rental r WHERE r.inventory_id = i.inventory_id AND r.return_date IS NULL
+               )) AS in_stock
+        FROM inventory i""";
+
+    private static final RowMapper<StockCount> STOCK_COUNT_MAPPER = (rs, rowNum) -> new StockCount(
+            rs.getInt(1),
+            rs.getInt(2),
+            rs.getInt(3),
+            rs.getInt(4)
+    );
+
+    private final JdbcTemplate template;
+
+    public InventoryJdbcTemplateRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    // films a store doesn't own are missing from the result
+    public List<StockCount> findStockCounts(Collection<Integer> filmIds, Collection<Integer> storeIds) {
+        if (filmIds.isEmpty() || storeIds.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = STOCK_COUNTS + """
+
+        WHERE i.film_id = ANY (?) AND i.store_id = ANY (?)
+        GROUP BY i.film_id, i.store_id""";
+
+        return template.query(sql, STOCK_COUNT_MAPPER,
+                PostgresTypes.integerArray(filmIds), PostgresTypes.integerArray(storeIds));
+    }
+
+    // stores not owning the film are missing from the result
+    public List<StockCount> findStockCounts(int filmId) {
+        String sql = STOCK_COUNTS + """
+
+        WHERE i.film_id = ?
+        GROUP BY i.film_id, i.store_id
+        ORDER BY i.store_id""";
+
+        return template.query(sql, STOCK_COUNT_MAPPER, filmId);
+    }
+
+    public List<StockCount> findAllStockCounts() {
+        String sql = STOCK_COUNTS + """
+
+        GROUP BY i.film_id, i.store_id""";
+
+        return template.query(sql, STOCK_COUNT_MAPPER);
+    }
+}
@@ -0,0 +1,39 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code next} is {@code null} on the last page.
+ */
+public record KeysetPage<T>(List<T> content, ScrollToken next) {
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    static ScrollPosition positionAfter(ScrollToken after, String sortProperty) {
+        return after == null
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(Map.of(sortProperty, after.sortKey(), "id", after.id()));
+    }
+
+    static <T> KeysetPage<T> of(Window<T> window, Function<T, ScrollToken> keyOf) {
+        final var content = window.getContent();
+        return new KeysetPage<>(content, window.hasNext() ? keyOf.apply(content.get(content.size() - 1)) : null);
+    }
+
+    // expects one row more than the page size to tell whether there is a next page
+    static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, ScrollToken> keyOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(List.copyOf(rows), null);
+        }
+
+        final var content = rows.subList(0, size);
+        return new KeysetPage<>(List.copyOf(content), keyOf.apply(content.get(size - 1)));
+    }
+}
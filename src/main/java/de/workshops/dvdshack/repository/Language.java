@@ -1,14 +1,18 @@
 package de.workshops.dvdshack.repository;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.LANGUAGE)
 public class Language extends BaseEntity{
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "LANGUAGE_ID_SEQ")
-    @SequenceGenerator(name = "LANGUAGE_ID_SEQ", sequenceName = "language_language_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "LANGUAGE_ID_SEQ", sequenceName = "language_language_id_seq", allocationSize = 50)
     @Column(name = "language_id", nullable = false)
     private Integer id;
 
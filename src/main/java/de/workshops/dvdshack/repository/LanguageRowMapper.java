@@ -0,0 +1,36 @@
+package de.workshops.dvdshack.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class LanguageRowMapper extends IndexedRowMapper<Language> {
+
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int LAST_UPDATE = 2;
+
+    public LanguageRowMapper() {
+        super(List.of(
+                List.of("id", "language_id"),
+                List.of("name"),
+                List.of("last_update")
+        ));
+    }
+
+    @Override
+    protected Language mapRow(ResultSet rs, int[] columnIndexes) throws SQLException {
+        final var language = new Language();
+        if (columnIndexes[ID] > 0) {
+            language.setId(rs.getInt(columnIndexes[ID]));
+        }
+        if (columnIndexes[NAME] > 0) {
+            language.setName(rs.getString(columnIndexes[NAME]));
+        }
+        if (columnIndexes[LAST_UPDATE] > 0) {
+            language.setLastUpdate(rs.getObject(columnIndexes[LAST_UPDATE], LocalDateTime.class));
+        }
+        return language;
+    }
+}
@@ -0,0 +1,64 @@
+package de.workshops.dvdshack.repository;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Liquibase change seeding the inventory from a CSV file on the classpath with {@link InventoryCsvImporter}.
+ */
+public class LoadInventoryChange implements CustomTaskChange {
+
+    private String file;
+
+    private ResourceAccessor resourceAccessor;
+
+    private InventoryImportReport report;
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        final var connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (var csv = resourceAccessor.getExisting(file).openInputStream()) {
+            report = new InventoryCsvImporter(connection).importCsv(csv);
+        } catch (IOException | SQLException e) {
+            throw new CustomChangeException("Loading the inventory from " + file + " failed", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return report == null
+                ? "Inventory not loaded"
+                : "Loaded %d inventory rows from %s".formatted(report.rowsImported(), file);
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        this.resourceAccessor = resourceAccessor;
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        final var errors = new ValidationErrors();
+        errors.checkRequiredField("file", file);
+        return errors;
+    }
+}
@@ -0,0 +1,47 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Repository
+public class LoyaltyCardJdbcTemplateRepository {
+
+    private final JdbcTemplate template;
+
+    public LoyaltyCardJdbcTemplateRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    public void forEachPayment(List<Integer> paymentIds, Consumer<PaymentAmount> consumer) {
+        String sql = """
+        SELECT payment_id, customer_id, amount
+        FROM payment
+        WHERE payment_id = ANY (?)""";
+
+        template.query(sql, (RowCallbackHandler) rs ->
+                consumer.accept(new PaymentAmount(rs.getInt(1), rs.getInt(2), rs.getBigDecimal(3))),
+                PostgresTypes.integerArray(paymentIds));
+    }
+
+    // creates the cards of customers who don't have one yet
+    public void addPoints(Map<Integer, Integer> pointsByCustomer) {
+        String sql = """
+        INSERT INTO loyalty_card (customer_id, points) VALUES (?, ?)
+        ON CONFLICT (customer_id) DO UPDATE SET points = loyalty_card.points + excluded.points""";
+
+        final var batchArgs = new ArrayList<Object[]>(pointsByCustomer.size());
+        pointsByCustomer.forEach((customerId, points) -> batchArgs.add(new Object[]{customerId, points}));
+        template.batchUpdate(sql, batchArgs);
+    }
+
+    public Integer findPoints(int customerId) {
+        return template.query("SELECT points FROM loyalty_card WHERE customer_id = ?",
+                rs -> rs.next() ? rs.getInt(1) : null, customerId);
+    }
+}
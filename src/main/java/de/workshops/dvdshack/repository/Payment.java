@@ -0,0 +1,7 @@
+package de.workshops.dvdshack.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record Payment(int id, int customerId, int staffId, int rentalId, BigDecimal amount, LocalDateTime paymentDate) {
+}
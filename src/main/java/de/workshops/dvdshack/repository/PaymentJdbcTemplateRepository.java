@@ -0,0 +1,151 @@
+package de.workshops.dvdshack.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Date range queries on payment, which is partitioned by month into the payment_pYYYY_MM child tables. A range is
+ * split into calendar months, so constraint exclusion limits the query of every month to the parent and the one child
+ * table of that month. The months are queried concurrently on a bounded pool and their results merged in order.
+ * <p>
+ * Every month is queried on its own connection outside the caller's transaction, so the months are not read from the
+ * same snapshot, and payments written by the caller's open transaction are not seen. The month queries are wrapped by
+ * the application's {@link TaskDecorator}, which attributes their statements to the calling repository method.
+ */
+@Repository
+public class PaymentJdbcTemplateRepository {
+
+    private static final RowMapper<Payment> PAYMENT_MAPPER = (rs, rowNum) -> new Payment(
+            rs.getInt(1),
+            rs.getInt(2),
+            rs.getInt(3),
+            rs.getInt(4),
+            rs.getBigDecimal(5),
+            rs.getTimestamp(6).toLocalDateTime()
+    );
+
+    private static final RowMapper<Map.Entry<LocalDate, BigDecimal>> DAILY_REVENUE_MAPPER = (rs, rowNum) -> Map.entry(
+            rs.getDate(1).toLocalDate(),
+            rs.getBigDecimal(2)
+    );
+
+    private final JdbcTemplate template;
+
+    private final ExecutorService executor;
+
+    private final Executor decoratedExecutor;
+
+    public PaymentJdbcTemplateRepository(
+            JdbcTemplate template,
+            ObjectProvider<TaskDecorator> taskDecorator,
+            @Value("${dvdshack.payment.query-parallelism:4}") int parallelism
+    ) {
+        this.template = template;
+        final var threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final var thread = new Thread(runnable, "payment-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final var decorator = taskDecorator.getIfUnique(() -> runnable -> runnable);
+        this.decoratedExecutor = runnable -> executor.execute(decorator.decorate(runnable));
+    }
+
+    // from inclusive, to exclusive, ordered by payment date
+    public List<Payment> findPayments(LocalDateTime from, LocalDateTime to) {
+        String sql = """
+        SELECT payment_id, customer_id, staff_id, rental_id, amount, payment_date
+        FROM payment
+        WHERE payment_date >= ? AND payment_date < ?
+        ORDER BY payment_date, payment_id""";
+
+        final var payments = new ArrayList<Payment>();
+        queryMonths(from, to, month -> template.query(sql, PAYMENT_MAPPER, month.from(), month.to()))
+                .forEach(payments::addAll);
+        return payments;
+    }
+
+    public BigDecimal sumAmounts(LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT coalesce(sum(amount), 0) FROM payment WHERE payment_date >= ? AND payment_date < ?";
+
+        return queryMonths(from, to, month -> template.queryForObject(sql, BigDecimal.class, month.from(), month.to()))
+                .stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    public SortedMap<LocalDate, BigDecimal> findDailyRevenue(LocalDateTime from, LocalDateTime to) {
+        String sql = """
+        SELECT payment_date::date, sum(amount)
+        FROM payment
+        WHERE payment_date >= ? AND payment_date < ?
+        GROUP BY payment_date::date""";
+
+        final var revenue = new TreeMap<LocalDate, BigDecimal>();
+        queryMonths(from, to, month -> template.query(sql, DAILY_REVENUE_MAPPER, month.from(), month.to()))
+                .forEach(days -> days.forEach(day -> revenue.put(day.getKey(), day.getValue())));
+        return revenue;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> List<T> queryMonths(LocalDateTime from, LocalDateTime to, Function<Month, T> query) {
+        final var futures = new ArrayList<CompletableFuture<T>>();
+        for (Month month : Month.between(from, to)) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(month), decoratedExecutor));
+        }
+
+        final var results = new ArrayList<T>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    record Month(Timestamp from, Timestamp to) {
+
+        static List<Month> between(LocalDateTime from, LocalDateTime to) {
+            final var months = new ArrayList<Month>();
+            var start = from;
+            while (start.isBefore(to)) {
+                final var nextMonth = start.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+                final var end = nextMonth.isBefore(to) ? nextMonth : to;
+                months.add(new Month(Timestamp.valueOf(start), Timestamp.valueOf(end)));
+                start = end;
+            }
+            return months;
+        }
+    }
+}
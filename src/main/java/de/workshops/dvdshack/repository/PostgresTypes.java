@@ -0,0 +1,95 @@
+package de.workshops.dvdshack.repository;
+
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.java.EnumJavaType;
+import org.hibernate.type.descriptor.jdbc.ObjectJdbcType;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Year;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binds and reads the custom Postgres types of the Sakila schema: the {@code mpaa_rating} enum, the {@code year}
+ * domain and the {@code text[]} special features, as well as {@code integer[]} id lists. Values are always sent as
+ * typed parameters, so the statement text stays the same for every value and the driver can prepare it once on the
+ * server and reuse the plan.
+ */
+public final class PostgresTypes {
+
+    static final RatingEnumValueConverter RATING_CONVERTER = new RatingEnumValueConverter(
+            new EnumJavaType<>(Rating.class), new ObjectJdbcType(SqlTypes.OTHER));
+
+    private PostgresTypes() {
+    }
+
+    public static SqlParameterValue rating(Rating rating) {
+        return new SqlParameterValue(Types.OTHER, rating == null ? null : RATING_CONVERTER.toRelationalValue(rating));
+    }
+
+    public static SqlParameterValue year(Year year) {
+        return new SqlParameterValue(Types.INTEGER, year == null ? null : year.getValue());
+    }
+
+    public static SqlParameterValue integerArray(Collection<Integer> values) {
+        return new SqlParameterValue(Types.ARRAY, values == null ? null : new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+                return connection.createArrayOf("integer", values.toArray());
+            }
+        });
+    }
+
+    public static void setRating(PreparedStatement statement, int index, Rating rating) throws SQLException {
+        if (rating == null) {
+            statement.setNull(index, Types.OTHER);
+        } else {
+            statement.setObject(index, RATING_CONVERTER.toRelationalValue(rating), Types.OTHER);
+        }
+    }
+
+    public static void setYear(PreparedStatement statement, int index, Year year) throws SQLException {
+        if (year == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, year.getValue());
+        }
+    }
+
+    public static void setTextArray(PreparedStatement statement, int index, List<String> values) throws SQLException {
+        if (values == null) {
+            statement.setNull(index, Types.ARRAY);
+        } else {
+            statement.setArray(index, statement.getConnection().createArrayOf("text", values.toArray()));
+        }
+    }
+
+    public static Rating getRating(ResultSet rs, int index) throws SQLException {
+        final var rating = rs.getString(index);
+        return rating == null ? null : RATING_CONVERTER.toDomainValue(rating);
+    }
+
+    public static Year getYear(ResultSet rs, int index) throws SQLException {
+        final int year = rs.getInt(index);
+        return rs.wasNull() ? null : Year.of(year);
+    }
+
+    public static List<String> getTextArray(ResultSet rs, int index) throws SQLException {
+        final Array array = rs.getArray(index);
+        if (array == null) {
+            return null;
+        }
+        try {
+            return List.of((String[]) array.getArray());
+        } finally {
+            array.free();
+        }
+    }
+}
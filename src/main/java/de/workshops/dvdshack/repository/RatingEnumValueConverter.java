@@ -1,18 +1,16 @@
 package de.workshops.dvdshack.repository;
 
-import org.hibernate.engine.spi.SharedSessionContractImplementor;
-import org.hibernate.type.descriptor.converter.spi.EnumValueConverter;
+import org.hibernate.type.descriptor.converter.spi.BasicValueConverter;
 import org.hibernate.type.descriptor.java.EnumJavaType;
 import org.hibernate.type.descriptor.java.JavaType;
-import org.hibernate.type.descriptor.java.ObjectJavaType;
+import org.hibernate.type.descriptor.java.StringJavaType;
 import org.hibernate.type.descriptor.jdbc.JdbcType;
 
 import java.io.Serializable;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Locale;
 
-public class RatingEnumValueConverter implements EnumValueConverter<Rating, Object>, Serializable {
+public class RatingEnumValueConverter implements BasicValueConverter<Rating, String>, Serializable {
     private final EnumJavaType<Rating> enumJavaType;
     private final JdbcType jdbcType;
 
@@ -21,16 +19,19 @@ public class RatingEnumValueConverter implements EnumValueConverter<Rating, Obje
         this.jdbcType = jdbcType;
     }
 
+    @Override
     public EnumJavaType<Rating> getDomainJavaType() {
         return this.enumJavaType;
     }
 
-    public JavaType<Object> getRelationalJavaType() {
-        return new ObjectJavaType();
+    @Override
+    public JavaType<String> getRelationalJavaType() {
+        return StringJavaType.INSTANCE;
     }
 
-    public Rating toDomainValue(Object relationalForm) {
-        return switch ((String)relationalForm) {
+    @Override
+    public Rating toDomainValue(String relationalForm) {
+        return switch (relationalForm) {
             case "G" -> Rating.G;
             case "PG" -> Rating.PG;
             case "PG-13" -> Rating.PG_13;
@@ -40,6 +41,7 @@ public class RatingEnumValueConverter implements EnumValueConverter<Rating, Obje
         };
     }
 
+    @Override
     public String toRelationalValue(Rating domainForm) {
         return switch (domainForm) {
             case G -> "G";
@@ -54,11 +56,7 @@ public class RatingEnumValueConverter implements EnumValueConverter<Rating, Obje
         return this.jdbcType.getJdbcTypeCode();
     }
 
-    public String toSqlLiteral(Object value) {
-        return String.format(Locale.ROOT, "'%s'", ((Rating)value).name());
-    }
-
-    public void writeValue(PreparedStatement statement, Rating value, int position, SharedSessionContractImplementor session) throws SQLException {
-        // nothing to do here
+    public void writeValue(PreparedStatement statement, Rating value, int position) throws SQLException {
+        PostgresTypes.setRating(statement, position, value);
     }
 }
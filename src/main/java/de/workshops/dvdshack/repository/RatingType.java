@@ -1,30 +1,63 @@
 package de.workshops.dvdshack.repository;
 
-import org.hibernate.type.EnumType;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.type.SqlTypes;
-import org.hibernate.type.descriptor.java.EnumJavaType;
-import org.hibernate.type.descriptor.jdbc.JdbcType;
-import org.hibernate.type.descriptor.jdbc.ObjectJdbcType;
-import org.hibernate.type.spi.TypeConfiguration;
+import org.hibernate.usertype.UserType;
 
-import java.util.Properties;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
-public class RatingType extends EnumType<Rating> {
-    public RatingType() {
-        super(Rating.class,
-                new RatingEnumValueConverter(
-                        new EnumJavaType<>(Rating.class),
-                        new ObjectJdbcType(SqlTypes.OTHER)),
-                new TypeConfiguration());
+public class RatingType implements UserType<Rating> {
+
+    @Override
+    public int getSqlType() {
+        return SqlTypes.OTHER;
+    }
+
+    @Override
+    public Class<Rating> returnedClass() {
+        return Rating.class;
+    }
+
+    @Override
+    public boolean equals(Rating x, Rating y) {
+        return x == y;
+    }
+
+    @Override
+    public int hashCode(Rating x) {
+        return x == null ? 0 : x.hashCode();
+    }
+
+    @Override
+    public Rating nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        return PostgresTypes.getRating(rs, position);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Rating value, int index, SharedSessionContractImplementor session) throws SQLException {
+        PostgresTypes.RATING_CONVERTER.writeValue(st, value, index);
+    }
+
+    @Override
+    public Rating deepCopy(Rating value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
     }
 
     @Override
-    public void setParameterValues(Properties parameters) {
-        // nothing to do here
+    public Serializable disassemble(Rating value) {
+        return value;
     }
 
     @Override
-    public JdbcType getJdbcType(TypeConfiguration typeConfiguration) {
-        return new ObjectJdbcType(SqlTypes.OTHER);
+    public Rating assemble(Serializable cached, Object owner) {
+        return (Rating) cached;
     }
 }
@@ -0,0 +1,18 @@
+package de.workshops.dvdshack.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rental of an inventory item, together with the film and store of that item.
+ */
+public record Rental(
+        int id,
+        int inventoryId,
+        int filmId,
+        int storeId,
+        int customerId,
+        int staffId,
+        LocalDateTime rentalDate,
+        LocalDateTime returnDate
+) {
+}
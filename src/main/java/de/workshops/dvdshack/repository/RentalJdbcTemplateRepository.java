@@ -0,0 +1,100 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Rents out and takes back many inventory items with one statement each. Neither reads the stock first nor locks
+ * the inventory: the unique index on the open rental of an item makes concurrent checkouts of the same item
+ * conflict, and the conflicting items are left out of the result instead of failing the whole statement.
+ */
+@Repository
+public class RentalJdbcTemplateRepository {
+
+    private static final RowMapper<Rental> RENTAL_MAPPER = (rs, rowNum) -> new Rental(
+            rs.getInt("rental_id"),
+            rs.getInt("inventory_id"),
+            rs.getInt("film_id"),
+            rs.getInt("store_id"),
+            rs.getInt("customer_id"),
+            rs.getInt("staff_id"),
+            rs.getTimestamp("rental_date").toLocalDateTime(),
+            toLocalDateTime(rs.getTimestamp("return_date"))
+    );
+
+    private final JdbcTemplate template;
+
+    public RentalJdbcTemplateRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    // items that don't exist or are rented out already are missing from the result
+    public List<Rental> rent(Collection<Integer> inventoryIds, int customerId, int staffId) {
+        if (inventoryIds.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = """
+                WITH rented AS (
+                    INSERT INTO rental (rental_date, inventory_id, customer_id, staff_id)
+                    SELECT localtimestamp, inventory_id, ?, ?
+                    FROM inventory
+                    WHERE inventory_id = ANY (?)
+                    ORDER BY inventory_id
+                    ON CONFLICT (inventory_id) WHERE return_date IS NULL DO NOTHING
+                    RETURNING rental_id, inventory_id, customer_id, staff_id, rental_date, return_date
+                )
+                SELECT r.*, i.film_id, i.store_id
+                FROM rented r
+                JOIN inventory i USING (inventory_id)
+                ORDER BY r.inventory_id
+                """;
+
+        return template.query(sql, RENTAL_MAPPER, customerId, staffId, PostgresTypes.integerArray(inventoryIds));
+    }
+
+    // items that aren't rented out are missing from the result
+    public List<Rental> giveBack(Collection<Integer> inventoryIds) {
+        if (inventoryIds.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = """
+                WITH returned AS (
+                    UPDATE rental
+                    SET return_date = localtimestamp
+                    WHERE inventory_id = ANY (?) AND return_date IS NULL
+                    RETURNING rental_id, inventory_id, customer_id, staff_id, rental_date, return_date
+                )
+                SELECT r.*, i.film_id, i.store_id
+                FROM returned r
+                JOIN inventory i USING (inventory_id)
+                ORDER BY r.inventory_id
+                """;
+
+        return template.query(sql, RENTAL_MAPPER, PostgresTypes.integerArray(inventoryIds));
+    }
+
+    public List<Rental> findOpenRentals(int customerId) {
+        String sql = """
+                SELECT r.rental_id, r.inventory_id, r.customer_id, r.staff_id, r.rental_date, r.return_date,
+                       i.film_id, i.store_id
+                FROM rental r
+                JOIN inventory i USING (inventory_id)
+                WHERE r.customer_id = ? AND r.return_date IS NULL
+                ORDER BY r.inventory_id
+                """;
+
+        return template.query(sql, RENTAL_MAPPER, customerId);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
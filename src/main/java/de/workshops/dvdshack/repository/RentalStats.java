@@ -0,0 +1,8 @@
+package de.workshops.dvdshack.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// lastRentalDate is null for films never rented
+public record RentalStats(int rentals, int openRentals, LocalDateTime lastRentalDate, BigDecimal revenue) {
+}
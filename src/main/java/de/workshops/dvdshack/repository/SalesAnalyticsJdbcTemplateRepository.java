@@ -0,0 +1,100 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales per day in daily_category_sales and daily_store_sales. Payments are added to them in batches of payment ids,
+ * and reports only read the daily rows, so their cost depends on the number of days, categories and stores rather than
+ * on the number of payments. Totals match the sales_by_film_category and sales_by_store views.
+ */
+@Repository
+public class SalesAnalyticsJdbcTemplateRepository {
+
+    private static final RowMapper<CategorySales> CATEGORY_SALES_MAPPER = (rs, rowNum) -> new CategorySales(
+            rs.getString(1),
+            rs.getBigDecimal(2)
+    );
+
+    private static final RowMapper<StoreSales> STORE_SALES_MAPPER = (rs, rowNum) -> new StoreSales(
+            rs.getString(1),
+            rs.getString(2),
+            rs.getBigDecimal(3)
+    );
+
+    private final JdbcTemplate template;
+
+    public SalesAnalyticsJdbcTemplateRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    public void addSales(List<Integer> paymentIds) {
+        String categorySales = """
+        INSERT INTO daily_category_sales (sales_date, category_id, store_id, total_sales)
+        SELECT p.payment_date::date, fc.category_id, i.store_id, sum(p.amount)
+        FROM payment p
+        JOIN rental r ON r.rental_id = p.rental_id
+        JOIN inventory i ON i.inventory_id = r.inventory_id
+        JOIN film_category fc ON fc.film_id = i.film_id
+        WHERE p.payment_id = ANY (?)
+        GROUP BY p.payment_date::date, fc.category_id, i.store_id
+        ON CONFLICT (sales_date, category_id, store_id)
+        DO UPDATE SET total_sales = daily_category_sales.total_sales + excluded.total_sales""";
+
+        String storeSales = """
+        INSERT INTO daily_store_sales (sales_date, store_id, total_sales)
+        SELECT p.payment_date::date, i.store_id, sum(p.amount)
+        FROM payment p
+        JOIN rental r ON r.rental_id = p.rental_id
+        JOIN inventory i ON i.inventory_id = r.inventory_id
+        WHERE p.payment_id = ANY (?)
+        GROUP BY p.payment_date::date, i.store_id
+        ON CONFLICT (sales_date, store_id)
+        DO UPDATE SET total_sales = daily_store_sales.total_sales + excluded.total_sales""";
+
+        template.update(categorySales, PostgresTypes.integerArray(paymentIds));
+        template.update(storeSales, PostgresTypes.integerArray(paymentIds));
+    }
+
+    public List<CategorySales> findSalesByCategory() {
+        return template.query(categorySalesQuery(""), CATEGORY_SALES_MAPPER);
+    }
+
+    // both days inclusive
+    public List<CategorySales> findSalesByCategory(LocalDate from, LocalDate to) {
+        return template.query(categorySalesQuery("WHERE sales_date BETWEEN ? AND ?"), CATEGORY_SALES_MAPPER, from, to);
+    }
+
+    public List<StoreSales> findSalesByStore() {
+        return template.query(storeSalesQuery(""), STORE_SALES_MAPPER);
+    }
+
+    // both days inclusive
+    public List<StoreSales> findSalesByStore(LocalDate from, LocalDate to) {
+        return template.query(storeSalesQuery("WHERE sales_date BETWEEN ? AND ?"), STORE_SALES_MAPPER, from, to);
+    }
+
+    private static String categorySalesQuery(String where) {
+        return """
+        SELECT c.name, s.total_sales
+        FROM (SELECT category_id, sum(total_sales) AS total_sales FROM daily_category_sales %s GROUP BY category_id) s
+        JOIN category c ON c.category_id = s.category_id
+        ORDER BY s.total_sales DESC""".formatted(where);
+    }
+
+    private static String storeSalesQuery(String where) {
+        return """
+        SELECT ci.city || ',' || co.country, m.first_name || ' ' || m.last_name, s.total_sales
+        FROM (SELECT store_id, sum(total_sales) AS total_sales FROM daily_store_sales %s GROUP BY store_id) s
+        JOIN store st ON st.store_id = s.store_id
+        JOIN address a ON a.address_id = st.address_id
+        JOIN city ci ON ci.city_id = a.city_id
+        JOIN country co ON co.country_id = ci.country_id
+        JOIN staff m ON m.staff_id = st.manager_staff_id
+        ORDER BY co.country, ci.city""".formatted(where);
+    }
+}
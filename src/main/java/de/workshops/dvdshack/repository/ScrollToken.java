@@ -0,0 +1,37 @@
+package de.workshops.dvdshack.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a {@link KeysetPage}, i.e. the sort key and id of that row, which the next
+ * page continues from. {@link #encode()} turns it into an opaque string that can be handed out to clients.
+ */
+public record ScrollToken(String sortKey, int id) {
+
+    private static final char SEPARATOR = '\n';
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + String.valueOf(SEPARATOR) + sortKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ScrollToken decode(String token) {
+        final String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid scroll token: " + token, e);
+        }
+
+        final int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid scroll token: " + token);
+        }
+        try {
+            return new ScrollToken(decoded.substring(separator + 1), Integer.parseInt(decoded.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid scroll token: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package de.workshops.dvdshack.repository;
+
+/**
+ * Number of copies of a film a store owns, and how many of them are not rented out.
+ */
+public record StockCount(int filmId, int storeId, int copies, int inStock) {
+}
@@ -0,0 +1,6 @@
+package de.workshops.dvdshack.repository;
+
+import java.math.BigDecimal;
+
+public record StoreSales(String store, String manager, BigDecimal totalSales) {
+}
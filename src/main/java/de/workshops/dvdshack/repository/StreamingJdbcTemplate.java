@@ -0,0 +1,43 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.stream.Stream;
+
+/**
+ * Runs queries whose results are fetched in chunks of {@code fetchSize} rows instead of all at once.
+ * PostgreSQL only uses a server-side cursor if auto-commit is off, so a transaction must be active.
+ */
+public class StreamingJdbcTemplate {
+
+    private final JdbcTemplate template;
+
+    public StreamingJdbcTemplate(DataSource dataSource, int fetchSize) {
+        this.template = new JdbcTemplate(dataSource);
+        this.template.setFetchSize(fetchSize);
+    }
+
+    /**
+     * The returned stream holds the connection's cursor open and has to be closed, e.g. by try-with-resources.
+     */
+    public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, Object... args) {
+        requireTransaction();
+        return template.queryForStream(sql, rowMapper, args);
+    }
+
+    public void query(String sql, RowCallbackHandler rowCallbackHandler, Object... args) {
+        requireTransaction();
+        template.query(sql, rowCallbackHandler, args);
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalTransactionStateException("Streaming queries require an active transaction to use a server-side cursor");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.workshops.dvdshack.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Positions up to which incremental jobs have consumed a table. Holding the lock of a watermark keeps concurrent runs
+ * of the same job from consuming the same rows twice, and advancing it in the transaction that applies the consumed
+ * rows makes a restarted job resume exactly where the last committed run stopped.
+ * <p>
+ * Ids are taken from a sequence before their rows commit, and transactions commit in any order, so neither the id nor
+ * the transaction id of a row tells whether all rows before it are visible. Watermarks are therefore positions in the
+ * {@link ChangeFeedRepository change feed}, i.e. a last_update and the primary key, which only ever moves past rows
+ * whose transactions and all transactions started before them have ended.
+ */
+@Repository
+public class WatermarkJdbcTemplateRepository {
+
+    private final JdbcTemplate template;
+
+    public WatermarkJdbcTemplateRepository(JdbcTemplate template) {
+        this.template = template;
+    }
+
+    // the lock is held until the surrounding transaction ends
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ChangePosition lock(String name) {
+        return template.queryForObject(
+                "SELECT position_last_update, position FROM watermark WHERE name = ? FOR UPDATE",
+                (rs, rowNum) -> new ChangePosition(rs.getTimestamp(1).toLocalDateTime(), List.of(rs.getInt(2))),
+                name
+        );
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void advance(String name, ChangePosition position) {
+        template.update("UPDATE watermark SET position_last_update = ?, position = ?, last_update = now() WHERE name = ?",
+                Timestamp.valueOf(position.lastUpdate()), position.key().get(0), name);
+    }
+}
@@ -5,15 +5,16 @@ import jakarta.persistence.Converter;
 
 import java.time.Year;
 
+// the year domain is an integer, so it is bound like the JdbcTemplate repositories do in PostgresTypes.year()
 @Converter(autoApply = true)
 public class YearConverter implements AttributeConverter<Year, Integer> {
     @Override
     public Integer convertToDatabaseColumn(Year year) {
-        return year.getValue();
+        return year == null ? null : year.getValue();
     }
 
     @Override
     public Year convertToEntityAttribute(Integer integer) {
-        return Year.of(integer);
+        return integer == null ? null : Year.of(integer);
     }
 }
@@ -0,0 +1,159 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import de.workshops.dvdshack.repository.InventoryJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.StockCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Import(QueryCountConfiguration.class)
+class AvailabilityServiceTest {
+
+    private static final List<Integer> STORES = List.of(1, 2);
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private InventoryJdbcTemplateRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    @Test
+    void shouldCountStockOfAllFilmsWithSingleQuery() {
+        final var filmIds = filmIds();
+
+        QueryCountHolder.clear();
+        final var stockLevels = availabilityService.findStockLevels(filmIds, STORES);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(queryCount).isEqualTo(1);
+        assertConsistentWithStoredFunctions(stockLevels, filmIds);
+    }
+
+    @Test
+    void shouldKeepInMemoryCountersConsistentOnRentalAndReturn() {
+        final var service = new AvailabilityService(inventoryRepository, true);
+        final var filmIds = filmIds();
+        assertConsistentWithStoredFunctions(service.findStockLevels(filmIds, STORES), filmIds);
+
+        final var item = template.queryForMap(
+                "SELECT inventory_id, film_id, store_id FROM inventory WHERE inventory_in_stock(inventory_id) ORDER BY inventory_id LIMIT 1");
+        final int filmId = (Integer) item.get("film_id");
+        final int storeId = (Integer) item.get("store_id");
+        final int rentalId = template.queryForObject(
+                "INSERT INTO rental (rental_date, inventory_id, customer_id, staff_id) VALUES (now(), ?, 1, 1) RETURNING rental_id",
+                Integer.class, item.get("inventory_id"));
+        service.rented(filmId, storeId);
+
+        assertThat(service.findStockLevels(List.of(filmId), STORES).inStock(filmId, storeId))
+                .isEqualTo(filmInStock(filmId, storeId));
+
+        template.update("UPDATE rental SET return_date = now() WHERE rental_id = ?", rentalId);
+        service.returned(filmId, storeId);
+
+        assertConsistentWithStoredFunctions(service.findStockLevels(filmIds, STORES), filmIds);
+    }
+
+    @Test
+    void shouldKeepRentalsMadeWhileReloadingCounters() throws Exception {
+        final var key = new StockLevels.FilmAtStore(1, 1);
+        final var stockInDatabase = new AtomicInteger(100);
+        final var stockRead = new CountDownLatch(1);
+        final var rentalsDone = new CountDownLatch(1);
+        final var reloading = new AtomicBoolean();
+        // reads the stock and then waits for rentals committed after that, as a slow reload would
+        final var repository = new InventoryJdbcTemplateRepository(template) {
+            @Override
+            public List<StockCount> findAllStockCounts() {
+                final var stockCount = new StockCount(key.filmId(), key.storeId(), 100, stockInDatabase.get());
+                if (!reloading.get()) {
+                    return List.of(stockCount);
+                }
+                stockRead.countDown();
+                try {
+                    rentalsDone.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(stockCount);
+            }
+        };
+        final var service = new AvailabilityService(repository, true);
+        final var stockLevels = service.findStockLevels(List.of(key.filmId()), List.of(key.storeId()));
+        assertThat(stockLevels.inStock(key.filmId(), key.storeId())).isEqualTo(100);
+
+        reloading.set(true);
+        final var refresh = CompletableFuture.runAsync(service::refreshCounters);
+        stockRead.await();
+        final var rentals = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    for (int rental = 0; rental < 10; rental++) {
+                        stockInDatabase.decrementAndGet();
+                        service.rented(key.filmId(), key.storeId());
+                    }
+                }))
+                .toList();
+        rentals.forEach(CompletableFuture::join);
+        rentalsDone.countDown();
+        refresh.join();
+
+        assertThat(service.findStockLevels(List.of(key.filmId()), List.of(key.storeId())).inStock(key.filmId(), key.storeId()))
+                .isEqualTo(stockInDatabase.get())
+                .isEqualTo(60);
+    }
+
+    @Test
+    void shouldReportNoStockForFilmsNotOwnedByStore() {
+        final var filmWithoutInventory = template.queryForObject(
+                "SELECT min(film_id) FROM film f WHERE NOT EXISTS (SELECT 1 FROM inventory i WHERE i.film_id = f.film_id)",
+                Integer.class);
+
+        final var stockLevels = availabilityService.findStockLevels(List.of(filmWithoutInventory), STORES);
+
+        assertThat(stockLevels.isInStock(filmWithoutInventory, 1)).isFalse();
+        assertThat(stockLevels.isInStock(filmWithoutInventory, 2)).isFalse();
+    }
+
+    // the first films plus every film with an item rented out
+    private List<Integer> filmIds() {
+        final var rentedOut = template.queryForList("""
+                SELECT DISTINCT i.film_id
+                FROM rental r JOIN inventory i ON i.inventory_id = r.inventory_id
+                WHERE r.return_date IS NULL""", Integer.class);
+        assertThat(rentedOut).isNotEmpty();
+        return Stream.concat(IntStream.rangeClosed(1, 100).boxed(), rentedOut.stream()).distinct().toList();
+    }
+
+    private void assertConsistentWithStoredFunctions(StockLevels stockLevels, List<Integer> filmIds) {
+        for (Integer filmId : filmIds) {
+            for (Integer storeId : STORES) {
+                assertThat(stockLevels.inStock(filmId, storeId))
+                        .as("film %d in store %d", filmId, storeId)
+                        .isEqualTo(filmInStock(filmId, storeId));
+            }
+        }
+    }
+
+    private int filmInStock(int filmId, int storeId) {
+        return template.queryForObject("SELECT count(*) FROM film_in_stock(?, ?)", Integer.class, filmId, storeId);
+    }
+}
@@ -0,0 +1,133 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Change;
+import de.workshops.dvdshack.repository.ChangeFeedRepository;
+import de.workshops.dvdshack.repository.ChangeFeedTable;
+import de.workshops.dvdshack.repository.PostgresTypes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// not transactional, the feed only sees committed changes; the rows are created by the tests and deleted afterwards
+@SpringBootTest
+class ChangeFeedPollerTest {
+
+    @Autowired
+    private ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    private final List<ChangeFeedEvent> events = new ArrayList<>();
+
+    private final List<Integer> actorIds = new ArrayList<>();
+
+    private final List<Integer> customerIds = new ArrayList<>();
+
+    private final List<Integer> categoryIds = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedRows() {
+        template.update("DELETE FROM actor WHERE actor_id = ANY (?)", PostgresTypes.integerArray(actorIds));
+        template.update("DELETE FROM customer WHERE customer_id = ANY (?)", PostgresTypes.integerArray(customerIds));
+        template.update("DELETE FROM film_category WHERE category_id = ANY (?)", PostgresTypes.integerArray(categoryIds));
+        template.update("DELETE FROM category WHERE category_id = ANY (?)", PostgresTypes.integerArray(categoryIds));
+    }
+
+    @Test
+    void shouldPublishChangesMadeSinceLastPoll() {
+        final var poller = new ChangeFeedPoller(changeFeedRepository, event -> events.add((ChangeFeedEvent) event),
+                1000);
+        poller.poll();
+        events.clear();
+
+        final int actorId = createActor();
+        final int customerId = createCustomer();
+        final int otherCustomerId = createCustomer();
+
+        assertThat(poller.poll()).isGreaterThanOrEqualTo(3);
+        assertThat(changesTo(ChangeFeedTable.ACTOR)).contains(List.of(actorId));
+        assertThat(changesTo(ChangeFeedTable.CUSTOMER)).contains(List.of(customerId), List.of(otherCustomerId));
+
+        events.clear();
+        poller.poll();
+        assertThat(changesTo(ChangeFeedTable.ACTOR)).doesNotContain(List.of(actorId));
+    }
+
+    @Test
+    void shouldPublishInBatches() {
+        final var poller = new ChangeFeedPoller(changeFeedRepository, event -> events.add((ChangeFeedEvent) event),
+                2);
+        poller.poll();
+        events.clear();
+
+        final int categoryId = createCategory();
+        template.update("INSERT INTO film_category (film_id, category_id) SELECT g, ? FROM generate_series(1, 5) g",
+                categoryId);
+
+        poller.poll();
+        assertThat(events).allSatisfy(event -> assertThat(event.changes()).hasSizeLessThanOrEqualTo(2));
+        assertThat(changesTo(ChangeFeedTable.FILM_CATEGORY)).containsSubsequence(
+                List.of(1, categoryId), List.of(2, categoryId), List.of(3, categoryId), List.of(4, categoryId),
+                List.of(5, categoryId));
+    }
+
+    @Test
+    void shouldPublishChangesAgainWhenListenerFails() {
+        final var failing = new boolean[]{true};
+        final var poller = new ChangeFeedPoller(changeFeedRepository, event -> {
+            if (failing[0] && ((ChangeFeedEvent) event).table() == ChangeFeedTable.CATEGORY) {
+                throw new IllegalStateException("listener failed");
+            }
+            events.add((ChangeFeedEvent) event);
+        }, 1000);
+        poller.poll();
+
+        final int categoryId = createCategory();
+
+        assertThatThrownBy(poller::poll).isInstanceOf(IllegalStateException.class);
+        failing[0] = false;
+        events.clear();
+        poller.poll();
+        assertThat(changesTo(ChangeFeedTable.CATEGORY)).contains(List.of(categoryId));
+    }
+
+    private int createActor() {
+        final var actorId = template.queryForObject(
+                "INSERT INTO actor (first_name, last_name) VALUES ('Fiona', 'Feed') RETURNING actor_id", Integer.class);
+        actorIds.add(actorId);
+        return actorId;
+    }
+
+    private int createCustomer() {
+        final var customerId = template.queryForObject("""
+                INSERT INTO customer (store_id, first_name, last_name, email, address_id, active)
+                VALUES (1, 'Fiona', 'Feed', 'fiona.feed@example.com', 1, 1)
+                RETURNING customer_id""", Integer.class);
+        customerIds.add(customerId);
+        return customerId;
+    }
+
+    private int createCategory() {
+        final var categoryId = template.queryForObject(
+                "INSERT INTO category (name) VALUES ('Feed') RETURNING category_id", Integer.class);
+        categoryIds.add(categoryId);
+        return categoryId;
+    }
+
+    private List<List<Integer>> changesTo(ChangeFeedTable table) {
+        return events.stream()
+                .filter(event -> event.table() == table)
+                .flatMap(event -> event.changes().stream())
+                .map(Change::key)
+                .toList();
+    }
+}
@@ -0,0 +1,91 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import de.workshops.dvdshack.repository.Customer;
+import de.workshops.dvdshack.repository.CustomerBalance;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Import(QueryCountConfiguration.class)
+class CustomerBalanceServiceTest {
+
+    @Autowired
+    private CustomerBalanceService customerBalanceService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2005-05-25T00:00:00", "2005-06-30T12:00:00", "2005-08-31T00:00:00", "2030-01-01T00:00:00"})
+    void shouldMatchStoredFunctionForAllCustomers(String effectiveDate) {
+        final var date = LocalDateTime.parse(effectiveDate);
+        final var balances = new ArrayList<CustomerBalance>();
+
+        QueryCountHolder.clear();
+        customerBalanceService.forEachBalance(date, balances::add);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(queryCount).isEqualTo(1);
+        assertThat(balances).extracting(CustomerBalance::customerId).isSorted();
+        assertThat(toMap(balances)).isEqualTo(storedFunctionBalances(date));
+    }
+
+    @Test
+    void shouldComputeBalancesOfGivenCustomersOnly() {
+        final var date = LocalDateTime.parse("2005-08-31T00:00:00");
+
+        final var balances = customerBalanceService.findBalances(date, List.of(5, 1, 3));
+
+        assertThat(balances).extracting(CustomerBalance::customerId).containsExactly(1, 3, 5);
+        final var expected = storedFunctionBalances(date);
+        balances.forEach(balance -> assertThat(balance.balance()).isEqualByComparingTo(expected.get(balance.customerId())));
+    }
+
+    @Test
+    void shouldComputeBalanceOfSingleCustomer() {
+        final var date = LocalDateTime.parse("2005-08-31T00:00:00");
+        final var customer = entityManager.find(Customer.class, 42);
+
+        final var balance = customerBalanceService.getBalance(customer, date);
+
+        assertThat(balance).isEqualByComparingTo(storedFunctionBalances(date).get(42));
+    }
+
+    private Map<Integer, BigDecimal> storedFunctionBalances(LocalDateTime effectiveDate) {
+        final var balances = new HashMap<Integer, BigDecimal>();
+        template.query("SELECT customer_id, get_customer_balance(customer_id, ?) FROM customer",
+                (RowCallbackHandler) rs -> balances.put(rs.getInt(1), rs.getBigDecimal(2).stripTrailingZeros()),
+                Timestamp.valueOf(effectiveDate));
+        return balances;
+    }
+
+    private static Map<Integer, BigDecimal> toMap(List<CustomerBalance> balances) {
+        final var map = new HashMap<Integer, BigDecimal>();
+        balances.forEach(balance -> map.put(balance.customerId(), balance.balance().stripTrailingZeros()));
+        return map;
+    }
+}
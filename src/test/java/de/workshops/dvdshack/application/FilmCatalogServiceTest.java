@@ -0,0 +1,100 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import de.workshops.dvdshack.repository.ActorJpaRepository;
+import de.workshops.dvdshack.repository.Film;
+import de.workshops.dvdshack.repository.Rating;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Year;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(QueryCountConfiguration.class)
+class FilmCatalogServiceTest {
+
+    private static final int QUERIES_PER_CALL = 3;
+
+    @Autowired
+    private FilmCatalogService filmCatalogService;
+
+    @Autowired
+    private ActorJpaRepository actorJpaRepository;
+
+    @Test
+    void shouldLoadFilmsByRatingWithFixedNumberOfQueries() {
+        QueryCountHolder.clear();
+        final var films = filmCatalogService.findAllFilmsByRating(Rating.PG_13);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(films).isNotEmpty();
+        assertAllAssociationsInitialized(films);
+        assertThat(queryCount).isEqualTo(QUERIES_PER_CALL);
+    }
+
+    @Test
+    void shouldLoadFilmsByActorWithFixedNumberOfQueries() {
+        final var actor = actorJpaRepository.findFirstAsActorByFirstNameAndLastName("REESE", "KILMER");
+
+        QueryCountHolder.clear();
+        final var films = filmCatalogService.findAllFilmsByActor(actor);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(films).isNotEmpty()
+                .allMatch(film -> film.getActors().contains(actor));
+        assertAllAssociationsInitialized(films);
+        assertThat(queryCount).isEqualTo(QUERIES_PER_CALL);
+    }
+
+    @Test
+    void shouldLoadLongFilmsWithFixedNumberOfQueries() {
+        QueryCountHolder.clear();
+        final var films = filmCatalogService.findAllFilmsWithMinimumLength(60);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(films).hasSizeGreaterThan(100);
+        assertAllAssociationsInitialized(films);
+        assertThat(queryCount).isEqualTo(QUERIES_PER_CALL);
+    }
+
+    @Test
+    void shouldLoadFilmsByTitleReleaseYearOrLengthWithFixedNumberOfQueries() {
+        QueryCountHolder.clear();
+        final var films = filmCatalogService.findByTitleAndReleaseYearOrLength("STRANGERS GRAFFITI", Year.of(2006), 119);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(films).isNotEmpty();
+        assertAllAssociationsInitialized(films);
+        assertThat(queryCount).isEqualTo(QUERIES_PER_CALL);
+    }
+
+    @Test
+    void shouldIssueSingleQueryIfNoFilmMatches() {
+        QueryCountHolder.clear();
+        final var films = filmCatalogService.findAllFilmsWithMinimumLength(Short.MAX_VALUE);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(films).isEmpty();
+        assertThat(queryCount).isEqualTo(1);
+    }
+
+    // runs outside of a transaction, so any uninitialized association would throw a LazyInitializationException
+    private static void assertAllAssociationsInitialized(List<Film> films) {
+        QueryCountHolder.clear();
+        films.forEach(film -> {
+            assertThat(film.getLanguage().getName()).isNotBlank();
+            if (film.getOriginalLanguage() != null) {
+                assertThat(film.getOriginalLanguage().getName()).isNotBlank();
+            }
+            assertThat(film.getActors()).allMatch(actor -> actor.getLastName() != null);
+            assertThat(film.getCategories()).allMatch(category -> category.getName() != null);
+        });
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isZero();
+    }
+}
@@ -0,0 +1,174 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Actor;
+import de.workshops.dvdshack.repository.Category;
+import de.workshops.dvdshack.repository.Film;
+import de.workshops.dvdshack.repository.FilmDetailRepository;
+import de.workshops.dvdshack.repository.InventoryJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.Language;
+import de.workshops.dvdshack.repository.RentalStats;
+import de.workshops.dvdshack.repository.StockCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class FilmDetailLoaderTest {
+
+    @Autowired
+    private FilmDetailLoader filmDetailLoader;
+
+    @Autowired
+    private InventoryJdbcTemplateRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    private final List<FilmDetailLoader> loaders = new ArrayList<>();
+
+    @AfterEach
+    void shutdownLoaders() {
+        loaders.forEach(FilmDetailLoader::shutdown);
+    }
+
+    @Test
+    void shouldLoadAllPartsOfFilm() {
+        final var detail = filmDetailLoader.load(1).orElseThrow();
+
+        assertThat(detail.isComplete()).isTrue();
+        assertThat(detail.film().getTitle()).isEqualTo("ACADEMY DINOSAUR");
+        assertThat(detail.actors()).hasSize(count("SELECT count(*) FROM film_actor WHERE film_id = 1"));
+        assertThat(detail.categories()).extracting(Category::getName).containsExactly("Documentary");
+        assertThat(detail.languages()).extracting(Language::getName).first().asString().startsWith("English");
+        assertThat(detail.stock()).extracting(StockCount::storeId).containsExactly(1, 2);
+        assertThat(detail.stock()).allSatisfy(stock -> assertThat(stock.inStock())
+                .isEqualTo(count("SELECT count(*) FROM film_in_stock(1, " + stock.storeId() + ")")));
+        assertThat(detail.rentalStats().rentals()).isEqualTo(count(
+                "SELECT count(*) FROM rental r JOIN inventory i ON i.inventory_id = r.inventory_id WHERE i.film_id = 1"));
+    }
+
+    @Test
+    void shouldReturnEmptyForUnknownFilm() {
+        assertThat(filmDetailLoader.load(-1)).isEmpty();
+    }
+
+    @Test
+    void shouldLeaveOutPartsTakingTooLong() {
+        final var repository = new FilmDetailRepository(template) {
+            @Override
+            public RentalStats findRentalStats(int filmId) {
+                sleep(Duration.ofSeconds(2));
+                return super.findRentalStats(filmId);
+            }
+        };
+        final var loader = loader(repository, 4, 10, Duration.ofMillis(200));
+
+        final var detail = loader.load(1).orElseThrow();
+
+        assertThat(detail.missing()).containsExactly(FilmDetail.Part.RENTAL_STATS);
+        assertThat(detail.rentalStats()).isNull();
+        assertThat(detail.film()).isNotNull();
+        assertThat(detail.actors()).isNotEmpty();
+    }
+
+    @Test
+    void shouldLeaveOutFailedParts() {
+        final var repository = new FilmDetailRepository(template) {
+            @Override
+            public List<Actor> findActors(int filmId) {
+                throw new IllegalStateException("actors unavailable");
+            }
+        };
+        final var loader = loader(repository, 4, 10, Duration.ofSeconds(2));
+
+        final var detail = loader.load(1).orElseThrow();
+
+        assertThat(detail.missing()).containsExactly(FilmDetail.Part.ACTORS);
+        assertThat(detail.actors()).isNull();
+        assertThat(detail.categories()).isNotEmpty();
+    }
+
+    @Test
+    void shouldLoadPartsConcurrentlyWithinCap() {
+        final int maxConcurrentQueries = 6;
+        final int connectionPoolSize = 6;
+        final var running = new AtomicInteger();
+        final var peak = new AtomicInteger();
+        // counts the parts queried at the same time, each staying long enough for the others to start
+        final var repository = new FilmDetailRepository(template) {
+            @Override
+            public Optional<Film> findFilm(int filmId) {
+                return counted(() -> super.findFilm(filmId));
+            }
+
+            @Override
+            public List<Actor> findActors(int filmId) {
+                return counted(() -> super.findActors(filmId));
+            }
+
+            @Override
+            public List<Category> findCategories(int filmId) {
+                return counted(() -> super.findCategories(filmId));
+            }
+
+            @Override
+            public List<Language> findLanguages(int filmId) {
+                return counted(() -> super.findLanguages(filmId));
+            }
+
+            @Override
+            public RentalStats findRentalStats(int filmId) {
+                return counted(() -> super.findRentalStats(filmId));
+            }
+
+            private <T> T counted(Supplier<T> query) {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    sleep(Duration.ofMillis(300));
+                    return query.get();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+        final var loader = loader(repository, maxConcurrentQueries, connectionPoolSize, Duration.ofSeconds(5));
+
+        final var detail = loader.load(1).orElseThrow();
+
+        assertThat(detail.isComplete()).isTrue();
+        assertThat(peak.get())
+                .isGreaterThan(1)
+                .isLessThanOrEqualTo(Math.min(maxConcurrentQueries, connectionPoolSize / 2));
+    }
+
+    private int count(String sql) {
+        return template.queryForObject(sql, Integer.class);
+    }
+
+    private FilmDetailLoader loader(FilmDetailRepository repository, int maxConcurrentQueries, int connectionPoolSize,
+                                    Duration timeout) {
+        final var loader = new FilmDetailLoader(repository, inventoryRepository, maxConcurrentQueries, connectionPoolSize,
+                timeout);
+        loaders.add(loader);
+        return loader;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
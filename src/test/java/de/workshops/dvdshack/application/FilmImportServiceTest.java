@@ -0,0 +1,62 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.FilmImport;
+import de.workshops.dvdshack.repository.FilmJpaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Year;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// not transactional, the import commits its batches; imported films are deleted afterwards
+@SpringBootTest
+class FilmImportServiceTest {
+
+    @Autowired
+    private FilmImportService filmImportService;
+
+    @Autowired
+    private FilmJpaRepository filmJpaRepository;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    private int lastFilmId;
+
+    @BeforeEach
+    void setUp() {
+        lastFilmId = template.queryForObject("SELECT max(film_id) FROM film", Integer.class);
+    }
+
+    @AfterEach
+    void deleteImportedFilms() {
+        template.update("DELETE FROM film_category WHERE film_id > ?", lastFilmId);
+        template.update("DELETE FROM film WHERE film_id > ?", lastFilmId);
+    }
+
+    @Test
+    void shouldEvictCachedFilmCounts() {
+        final var year = Year.of(1999);
+        final var before = filmJpaRepository.countFilmsByReleaseYear(year);
+
+        final var report = filmImportService.importFilms(List.of(FilmImport.builder()
+                .title("IMPORTED")
+                .releaseYear(year)
+                .language("English")
+                .rentalDuration((short) 3)
+                .rentalRate(new BigDecimal("4.99"))
+                .replacementCost(new BigDecimal("19.99"))
+                .categories(List.of("Drama"))
+                .build()));
+
+        assertThat(report.filmsImported()).isOne();
+        assertThat(filmJpaRepository.countFilmsByReleaseYear(year)).isEqualTo(before + 1);
+    }
+}
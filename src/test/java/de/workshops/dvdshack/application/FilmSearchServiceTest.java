@@ -0,0 +1,48 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(QueryCountConfiguration.class)
+class FilmSearchServiceTest {
+
+    @Autowired
+    private FilmSearchService filmSearchService;
+
+    @BeforeEach
+    void clearCache() {
+        filmSearchService.clearCache();
+    }
+
+    @Test
+    void shouldAnswerRepeatedQueriesFromCache() {
+        QueryCountHolder.clear();
+        final var first = filmSearchService.searchFilms("Mad Scientist", null, 10);
+        final var second = filmSearchService.searchFilms("  mad   scientist ", null, 10);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(first.content()).isNotEmpty();
+        assertThat(second).isEqualTo(first);
+        assertThat(queryCount).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCacheEachPageSeparately() {
+        final var first = filmSearchService.searchFilms("drama", null, 5);
+
+        QueryCountHolder.clear();
+        final var second = filmSearchService.searchFilms("drama", first.next(), 5);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(second.content()).doesNotContainAnyElementsOf(first.content());
+        assertThat(queryCount).isEqualTo(1);
+    }
+}
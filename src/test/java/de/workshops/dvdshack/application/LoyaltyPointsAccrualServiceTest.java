@@ -0,0 +1,227 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.ChangeFeedRepository;
+import de.workshops.dvdshack.repository.LoyaltyCardJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.PostgresTypes;
+import de.workshops.dvdshack.repository.SalesAnalyticsJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.WatermarkJdbcTemplateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class LoyaltyPointsAccrualServiceTest {
+
+    @Autowired
+    private LoyaltyPointsAccrualService accrualService;
+
+    @Autowired
+    private LoyaltyCardJdbcTemplateRepository loyaltyCardRepository;
+
+    @Autowired
+    private WatermarkJdbcTemplateRepository watermarkRepository;
+
+    @Autowired
+    private ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    private SalesAnalyticsJdbcTemplateRepository salesRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void catchUp() {
+        accrualService.accrue();
+    }
+
+    @Test
+    void shouldAccrueAllPaymentsFromScratch() {
+        template.update("DELETE FROM loyalty_card");
+        template.update("UPDATE watermark SET position_last_update = '1970-01-01', position = 0 WHERE name = ?",
+                LoyaltyPointsAccrualService.WATERMARK);
+
+        final var accrued = accrualService.accrue();
+
+        assertThat(accrued).isEqualTo(template.queryForObject("SELECT count(*) FROM payment", Integer.class));
+        final var expected = new HashMap<Integer, Integer>();
+        template.query("SELECT customer_id, sum(trunc(amount * 10))::int FROM payment GROUP BY customer_id",
+                (RowCallbackHandler) rs -> expected.put(rs.getInt(1), rs.getInt(2)));
+        assertThat(allPoints()).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldAccrueOnlyNewPayments() {
+        final var before = points(1);
+        insertPayment(1, "2.99");
+        insertPayment(1, "4.99");
+        insertPayment(2, "0.99");
+
+        final var accrued = accrualService.accrue();
+
+        assertThat(accrued).isEqualTo(3);
+        assertThat(points(1)).isEqualTo(before + 29 + 49);
+    }
+
+    @Test
+    void shouldNotAccruePaymentsTwiceAfterRestart() {
+        insertPayment(1, "2.99");
+        accrualService.accrue();
+        final var points = allPoints();
+
+        final var restarted = new LoyaltyPointsAccrualService(loyaltyCardRepository, watermarkRepository, changeFeedRepository,
+                transactionTemplate, 10, 5000);
+
+        assertThat(accrualService.accrue()).isZero();
+        assertThat(restarted.accrue()).isZero();
+        assertThat(allPoints()).isEqualTo(points);
+    }
+
+    @Test
+    void shouldAccrueInSeveralBatches() {
+        final var before = points(3);
+        for (int i = 0; i < 5; i++) {
+            insertPayment(3, "1.00");
+        }
+        final var smallBatches = new LoyaltyPointsAccrualService(loyaltyCardRepository, watermarkRepository, changeFeedRepository,
+                transactionTemplate, 10, 2);
+
+        final var accrued = smallBatches.accrue();
+
+        assertThat(accrued).isEqualTo(5);
+        assertThat(points(3)).isEqualTo(before + 50);
+    }
+
+    // not transactional, the payments are inserted by two concurrent transactions; they are deleted afterwards
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldAccruePaymentCommittedAfterPaymentWithHigherId() throws SQLException {
+        final var before = Map.of(5, points(5), 6, points(6));
+        final var paymentIds = new ArrayList<Integer>();
+        try (var first = dataSource.getConnection(); var second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            paymentIds.add(insertPayment(first, 5, "2.99"));
+            paymentIds.add(insertPayment(second, 6, "4.99"));
+            second.commit();
+
+            accrualService.accrue();
+            assertThat(points(6)).isEqualTo(before.get(6));
+
+            first.commit();
+            accrualService.accrue();
+            assertThat(points(5)).isEqualTo(before.get(5) + 29);
+            assertThat(points(6)).isEqualTo(before.get(6) + 49);
+        } finally {
+            deletePayments(paymentIds);
+            before.forEach((customerId, points) ->
+                    template.update("UPDATE loyalty_card SET points = ? WHERE customer_id = ?", points, customerId));
+        }
+    }
+
+    // not transactional, see above; the transaction taking the lower payment id starts and commits last
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldAccruePaymentWithLowerIdOfTransactionStartedLater() throws SQLException {
+        final var before = Map.of(5, points(5), 6, points(6));
+        final var paymentIds = new ArrayList<Integer>();
+        try (var first = dataSource.getConnection(); var second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            try (var statement = first.createStatement()) {
+                statement.execute("SELECT pg_current_xact_id()");
+            }
+            paymentIds.add(insertPayment(second, 6, "4.99"));
+            paymentIds.add(insertPayment(first, 5, "2.99"));
+            assertThat(paymentIds.get(0)).isLessThan(paymentIds.get(1));
+            first.commit();
+
+            accrualService.accrue();
+            assertThat(points(5)).isEqualTo(before.get(5) + 29);
+
+            second.commit();
+            accrualService.accrue();
+            assertThat(points(5)).isEqualTo(before.get(5) + 29);
+            assertThat(points(6)).isEqualTo(before.get(6) + 49);
+        } finally {
+            deletePayments(paymentIds);
+            before.forEach((customerId, points) ->
+                    template.update("UPDATE loyalty_card SET points = ? WHERE customer_id = ?", points, customerId));
+        }
+    }
+
+    @Test
+    void shouldRoundPointsDown() {
+        assertThat(accrualService.points(new BigDecimal("0.99"))).isEqualTo(9);
+        assertThat(accrualService.points(new BigDecimal("11.99"))).isEqualTo(119);
+        assertThat(accrualService.points(BigDecimal.ZERO)).isZero();
+    }
+
+    private void insertPayment(int customerId, String amount) {
+        template.update("INSERT INTO payment (customer_id, staff_id, rental_id, amount, payment_date) VALUES (?, 1, 1, ?, now())",
+                customerId, new BigDecimal(amount));
+    }
+
+    // the scheduled sales refresh may have added the committed payments already, so today's sales are rebuilt
+    private void deletePayments(List<Integer> paymentIds) {
+        template.update("DELETE FROM payment WHERE payment_id = ANY (?)", PostgresTypes.integerArray(paymentIds));
+        template.update("DELETE FROM daily_category_sales WHERE sales_date = current_date");
+        template.update("DELETE FROM daily_store_sales WHERE sales_date = current_date");
+        salesRepository.addSales(template.queryForList(
+                "SELECT payment_id FROM payment WHERE payment_date::date = current_date", Integer.class));
+    }
+
+    // payment has partition rules, which rule out INSERT ... RETURNING
+    private static int insertPayment(Connection connection, int customerId, String amount) throws SQLException {
+        final int paymentId;
+        try (var statement = connection.createStatement();
+             var rs = statement.executeQuery("SELECT nextval('payment_payment_id_seq')::int")) {
+            rs.next();
+            paymentId = rs.getInt(1);
+        }
+        try (var statement = connection.prepareStatement(
+                "INSERT INTO payment (payment_id, customer_id, staff_id, rental_id, amount, payment_date) VALUES (?, ?, 1, 1, ?, now())")) {
+            statement.setInt(1, paymentId);
+            statement.setInt(2, customerId);
+            statement.setBigDecimal(3, new BigDecimal(amount));
+            statement.executeUpdate();
+        }
+        return paymentId;
+    }
+
+    private int points(int customerId) {
+        final var points = loyaltyCardRepository.findPoints(customerId);
+        return points == null ? 0 : points;
+    }
+
+    private Map<Integer, Integer> allPoints() {
+        final var points = new HashMap<Integer, Integer>();
+        template.query("SELECT customer_id, points FROM loyalty_card",
+                (RowCallbackHandler) rs -> points.put(rs.getInt(1), rs.getInt(2)));
+        return points;
+    }
+}
@@ -0,0 +1,115 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.repository.Rental;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// not transactional, the checkouts compete in their own transactions; the rentals are deleted afterwards
+@SpringBootTest
+@Slf4j
+class RentalServiceLoadTest {
+
+    private static final int THREADS = 8;
+
+    private static final int CHECKOUTS_PER_THREAD = 100;
+
+    private static final int ITEMS_PER_CHECKOUT = 3;
+
+    // few items for many threads, so that most checkouts compete for some of their items
+    private static final int ITEMS = 24;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    private int lastRentalId;
+
+    private List<Integer> items;
+
+    @BeforeEach
+    void setUp() {
+        lastRentalId = template.queryForObject("SELECT max(rental_id) FROM rental", Integer.class);
+        items = template.queryForList(
+                "SELECT inventory_id FROM inventory WHERE inventory_in_stock(inventory_id) ORDER BY inventory_id LIMIT ?",
+                Integer.class, ITEMS);
+    }
+
+    @AfterEach
+    void deleteRentals() {
+        template.update("DELETE FROM rental WHERE rental_id > ?", lastRentalId);
+    }
+
+    @Test
+    void shouldNeverRentOutAnItemTwiceUnderContention() throws Exception {
+        // customer holding each item according to the checkouts and returns that succeeded
+        final var holders = new ConcurrentHashMap<Integer, Integer>();
+        final var doubleRentals = new AtomicInteger();
+        final var rented = new AtomicInteger();
+        final var unavailable = new AtomicInteger();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final var futures = new ArrayList<Future<?>>();
+        final long start = System.nanoTime();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int customerId = thread + 1;
+            futures.add(executor.submit(() -> {
+                final var random = ThreadLocalRandom.current();
+                for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                    final var wanted = random.ints(0, ITEMS).distinct().limit(ITEMS_PER_CHECKOUT)
+                            .mapToObj(items::get).toList();
+
+                    final var checkout = rentalService.checkout(customerId, 1, wanted);
+                    for (Rental rental : checkout.rentals()) {
+                        if (holders.putIfAbsent(rental.inventoryId(), customerId) != null) {
+                            doubleRentals.incrementAndGet();
+                        }
+                    }
+                    rented.addAndGet(checkout.rentals().size());
+                    unavailable.addAndGet(checkout.unavailable().size());
+
+                    final var taken = checkout.rentals().stream().map(Rental::inventoryId).toList();
+                    taken.forEach(holders::remove);
+                    assertThat(rentalService.returnItems(taken)).hasSameSizeAs(taken);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        final long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        final int checkouts = THREADS * CHECKOUTS_PER_THREAD;
+        log.info("{} checkouts of {} items each with {} threads in {} ms: {} checkouts/s, {} items rented, {} unavailable",
+                checkouts, ITEMS_PER_CHECKOUT, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                checkouts * 1_000_000_000L / elapsed, rented.get(), unavailable.get());
+
+        assertThat(doubleRentals).hasValue(0);
+        assertThat(rented.get() + unavailable.get()).isEqualTo(checkouts * ITEMS_PER_CHECKOUT);
+        assertThat(unavailable.get()).isPositive();
+        assertThat(template.queryForObject(
+                "SELECT count(*) FROM rental WHERE rental_id > ?", Integer.class, lastRentalId)).isEqualTo(rented.get());
+        assertThat(template.queryForObject(
+                "SELECT count(*) FROM rental WHERE inventory_id = ANY (?) AND return_date IS NULL", Integer.class,
+                (Object) items.toArray(Integer[]::new))).isZero();
+    }
+}
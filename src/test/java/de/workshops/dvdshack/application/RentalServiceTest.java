@@ -0,0 +1,98 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import de.workshops.dvdshack.repository.Rental;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Import(QueryCountConfiguration.class)
+class RentalServiceTest {
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    @Test
+    void shouldCheckOutManyItemsWithSingleStatement() {
+        final var items = itemsInStock(5);
+
+        QueryCountHolder.clear();
+        final var checkout = rentalService.checkout(1, 1, items);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(queryCount).isEqualTo(1);
+        assertThat(checkout.isComplete()).isTrue();
+        assertThat(checkout.rentals()).extracting(Rental::inventoryId).containsExactlyElementsOf(items);
+        assertThat(checkout.rentals()).allSatisfy(rental -> {
+            assertThat(rental.customerId()).isEqualTo(1);
+            assertThat(rental.returnDate()).isNull();
+        });
+        assertThat(items).noneMatch(this::inStock);
+        assertThat(rentalService.findOpenRentals(1)).containsAll(checkout.rentals());
+    }
+
+    @Test
+    void shouldReportItemsRentedOutOrUnknownAsUnavailable() {
+        final var items = itemsInStock(3);
+        rentalService.checkout(1, 1, List.of(items.get(0)));
+
+        final var checkout = rentalService.checkout(2, 1, List.of(items.get(0), items.get(1), items.get(2), -1));
+
+        assertThat(checkout.rentals()).extracting(Rental::inventoryId).containsExactly(items.get(1), items.get(2));
+        assertThat(checkout.unavailable()).containsExactly(items.get(0), -1);
+        assertThat(template.queryForObject(
+                "SELECT customer_id FROM rental WHERE inventory_id = ? AND return_date IS NULL", Integer.class,
+                items.get(0))).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnManyItemsWithSingleStatement() {
+        final var items = itemsInStock(4);
+        rentalService.checkout(1, 1, items);
+
+        QueryCountHolder.clear();
+        final var returned = rentalService.returnItems(items);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(queryCount).isEqualTo(1);
+        assertThat(returned).extracting(Rental::inventoryId).containsExactlyElementsOf(items);
+        assertThat(returned).allSatisfy(rental -> assertThat(rental.returnDate()).isNotNull());
+        assertThat(items).allMatch(this::inStock);
+        assertThat(rentalService.returnItems(items)).isEmpty();
+    }
+
+    @Test
+    void shouldRentReturnedItemsAgain() {
+        final var items = itemsInStock(2);
+        rentalService.checkout(1, 1, items);
+        rentalService.returnItems(List.of(items.get(0)));
+
+        final var checkout = rentalService.checkout(2, 1, items);
+
+        assertThat(checkout.rentals()).extracting(Rental::inventoryId).containsExactly(items.get(0));
+        assertThat(checkout.unavailable()).containsExactly(items.get(1));
+    }
+
+    private List<Integer> itemsInStock(int count) {
+        return template.queryForList(
+                "SELECT inventory_id FROM inventory WHERE inventory_in_stock(inventory_id) ORDER BY inventory_id LIMIT ?",
+                Integer.class, count);
+    }
+
+    private boolean inStock(int inventoryId) {
+        return template.queryForObject("SELECT inventory_in_stock(?)", Boolean.class, inventoryId);
+    }
+}
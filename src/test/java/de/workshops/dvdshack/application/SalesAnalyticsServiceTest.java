@@ -0,0 +1,179 @@
+package de.workshops.dvdshack.application;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import de.workshops.dvdshack.repository.CategorySales;
+import de.workshops.dvdshack.repository.PostgresTypes;
+import de.workshops.dvdshack.repository.SalesAnalyticsJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.StoreSales;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Import(QueryCountConfiguration.class)
+class SalesAnalyticsServiceTest {
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private SalesAnalyticsJdbcTemplateRepository salesRepository;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void catchUp() {
+        salesAnalyticsService.refresh();
+    }
+
+    @Test
+    void shouldMatchSalesByFilmCategoryView() {
+        final var sales = salesAnalyticsService.findSalesByCategory();
+
+        assertThat(sales).extracting(CategorySales::totalSales).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(toMap(sales)).isEqualTo(queryTotals("SELECT category, total_sales FROM sales_by_film_category"));
+    }
+
+    @Test
+    void shouldMatchSalesByStoreView() {
+        final var sales = salesAnalyticsService.findSalesByStore();
+
+        assertThat(sales).isEqualTo(salesByStoreView());
+    }
+
+    @Test
+    void shouldAddNewPaymentsOnRefresh() {
+        final var category = template.queryForObject("""
+                SELECT c.name FROM rental r
+                JOIN inventory i ON i.inventory_id = r.inventory_id
+                JOIN film_category fc ON fc.film_id = i.film_id
+                JOIN category c ON c.category_id = fc.category_id
+                WHERE r.rental_id = 1""", String.class);
+        final var before = toMap(salesAnalyticsService.findSalesByCategory()).get(category);
+        template.update("INSERT INTO payment (customer_id, staff_id, rental_id, amount, payment_date) VALUES (1, 1, 1, 5.00, now())");
+
+        assertThat(salesAnalyticsService.refresh()).isTrue();
+        assertThat(salesAnalyticsService.refresh()).isFalse();
+        assertThat(toMap(salesAnalyticsService.findSalesByCategory()).get(category))
+                .isEqualByComparingTo(before.add(new BigDecimal("5.00")));
+        assertThat(toMap(salesAnalyticsService.findSalesByCategory(LocalDate.now(), LocalDate.now())).get(category))
+                .isEqualByComparingTo("5.00");
+    }
+
+    // not transactional, the payments are inserted by two concurrent transactions; they and their sales are removed
+    // afterwards. The transaction taking the lower payment id starts and commits last
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldAddPaymentWithLowerIdOfTransactionStartedLater() throws SQLException {
+        final var paymentIds = new ArrayList<Integer>();
+        try (var first = dataSource.getConnection(); var second = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            second.setAutoCommit(false);
+            try (var statement = first.createStatement()) {
+                statement.execute("SELECT pg_current_xact_id()");
+            }
+            paymentIds.add(insertPayment(second, "4.99"));
+            paymentIds.add(insertPayment(first, "2.99"));
+            assertThat(paymentIds.get(0)).isLessThan(paymentIds.get(1));
+            first.commit();
+
+            salesAnalyticsService.refresh();
+            assertThat(salesAnalyticsService.findSalesByStore()).isEqualTo(salesByStoreView());
+
+            second.commit();
+            salesAnalyticsService.refresh();
+            assertThat(salesAnalyticsService.findSalesByStore()).isEqualTo(salesByStoreView());
+        } finally {
+            template.update("DELETE FROM payment WHERE payment_id = ANY (?)", PostgresTypes.integerArray(paymentIds));
+            template.update("DELETE FROM daily_category_sales WHERE sales_date = current_date");
+            template.update("DELETE FROM daily_store_sales WHERE sales_date = current_date");
+            salesRepository.addSales(template.queryForList(
+                    "SELECT payment_id FROM payment WHERE payment_date::date = current_date", Integer.class));
+        }
+    }
+
+    @Test
+    void shouldReportSalesOfDateRange() {
+        final var from = LocalDate.of(2005, 7, 1);
+        final var to = LocalDate.of(2005, 7, 31);
+
+        final var sales = salesAnalyticsService.findSalesByCategory(from, to);
+
+        assertThat(toMap(sales)).isEqualTo(queryTotals("""
+                SELECT c.name, sum(p.amount)
+                FROM payment p
+                JOIN rental r ON r.rental_id = p.rental_id
+                JOIN inventory i ON i.inventory_id = r.inventory_id
+                JOIN film_category fc ON fc.film_id = i.film_id
+                JOIN category c ON c.category_id = fc.category_id
+                WHERE p.payment_date::date BETWEEN ? AND ?
+                GROUP BY c.name""", from, to));
+    }
+
+    @Test
+    void shouldReadReportWithSingleQuery() {
+        QueryCountHolder.clear();
+        salesAnalyticsService.findSalesByStore();
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(queryCount).isEqualTo(1);
+    }
+
+    private List<StoreSales> salesByStoreView() {
+        return template.query("SELECT store, manager, total_sales FROM sales_by_store",
+                (rs, rowNum) -> new StoreSales(rs.getString(1), rs.getString(2), rs.getBigDecimal(3)));
+    }
+
+    // payment has partition rules, which rule out INSERT ... RETURNING
+    private static int insertPayment(Connection connection, String amount) throws SQLException {
+        final int paymentId;
+        try (var statement = connection.createStatement();
+             var rs = statement.executeQuery("SELECT nextval('payment_payment_id_seq')::int")) {
+            rs.next();
+            paymentId = rs.getInt(1);
+        }
+        try (var statement = connection.prepareStatement(
+                "INSERT INTO payment (payment_id, customer_id, staff_id, rental_id, amount, payment_date) VALUES (?, 1, 1, 1, ?, now())")) {
+            statement.setInt(1, paymentId);
+            statement.setBigDecimal(2, new BigDecimal(amount));
+            statement.executeUpdate();
+        }
+        return paymentId;
+    }
+
+    private Map<String, BigDecimal> queryTotals(String sql, Object... args) {
+        final var totals = new HashMap<String, BigDecimal>();
+        template.query(sql, (RowCallbackHandler) rs -> totals.put(rs.getString(1), rs.getBigDecimal(2)), args);
+        return totals;
+    }
+
+    private static Map<String, BigDecimal> toMap(List<CategorySales> sales) {
+        final var totals = new HashMap<String, BigDecimal>();
+        sales.forEach(categorySales -> totals.put(categorySales.category(), categorySales.totalSales()));
+        return totals;
+    }
+}
@@ -0,0 +1,52 @@
+package de.workshops.dvdshack.datasource;
+
+import de.workshops.dvdshack.repository.ActorJpaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the replica is the primary database again, told apart by the application name of its connections
+@SpringBootTest(properties = {
+        "dvdshack.datasource.routing.replicas[0].url=${spring.datasource.url}",
+        "dvdshack.datasource.routing.replicas[0].username=${spring.datasource.username}",
+        "dvdshack.datasource.routing.replicas[0].password=${spring.datasource.password}",
+        "dvdshack.datasource.routing.replicas[0].properties.ApplicationName=dvdshack-replica"
+})
+class DataSourceRoutingConfigurationTest {
+
+    private static final String APPLICATION_NAME = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate template;
+
+    @Autowired
+    private ActorJpaRepository actorJpaRepository;
+
+    @Test
+    void shouldRouteReadOnlyJpaTransactionsToReplica() {
+        final var readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        final var applicationName = readOnly.execute(status -> {
+            assertThat(actorJpaRepository.findActorsByLastName("KILMER")).isNotEmpty();
+            return template.queryForObject(APPLICATION_NAME, String.class);
+        });
+
+        assertThat(applicationName).isEqualTo("dvdshack-replica");
+    }
+
+    @Test
+    void shouldRouteReadWriteTransactionsToPrimary() {
+        final var applicationName = transactionTemplate.execute(status ->
+                template.queryForObject(APPLICATION_NAME, String.class));
+
+        assertThat(applicationName).isNotEqualTo("dvdshack-replica");
+    }
+}
@@ -0,0 +1,152 @@
+package de.workshops.dvdshack.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final List<ReadWriteRoutingDataSource> routingDataSources = new ArrayList<>();
+
+    @AfterEach
+    void close() throws IOException {
+        for (ReadWriteRoutingDataSource dataSource : routingDataSources) {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToReplica() {
+        final var routing = routing(List.of(database("replica")), Duration.ZERO);
+
+        assertThat(readOnly(routing)).isEqualTo("replica");
+        assertThat(readWrite(routing)).isEqualTo("primary");
+        assertThat(new JdbcTemplate(routing).queryForObject("SELECT name FROM node", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldSpreadReadOnlyTransactionsOverReplicas() {
+        final var routing = routing(List.of(database("replica-a"), database("replica-b")), Duration.ZERO);
+
+        final var nodes = List.of(readOnly(routing), readOnly(routing), readOnly(routing), readOnly(routing));
+
+        assertThat(nodes).containsExactlyInAnyOrder("replica-a", "replica-a", "replica-b", "replica-b");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhileReplicaIsDown() {
+        final var attempts = new AtomicInteger();
+        final var down = new DelegatingDataSource(database("replica")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                attempts.incrementAndGet();
+                throw new SQLException("connection refused");
+            }
+        };
+        final var routing = routing(List.of(down, database("replica-b")), Duration.ZERO);
+
+        final var nodes = List.of(readOnly(routing), readOnly(routing), readOnly(routing), readOnly(routing));
+
+        assertThat(nodes).containsOnly("replica-b");
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void shouldUsePrimaryWithoutAvailableReplica() {
+        final var down = new DelegatingDataSource(database("replica")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("connection refused");
+            }
+        };
+        final var routing = routing(List.of(down), Duration.ZERO);
+
+        assertThat(readOnly(routing)).isEqualTo("primary");
+        assertThat(readOnly(routing)).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimary() {
+        final var routing = routing(List.of(database("replica")), Duration.ofMinutes(1));
+
+        assertThat(readOnly(routing)).isEqualTo("replica");
+        assertThat(readWrite(routing)).isEqualTo("primary");
+        assertThat(readOnly(routing)).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldPassCredentialsToReplica() throws SQLException {
+        final var routing = routing(List.of(database("replica")), Duration.ZERO);
+
+        try (Connection connection = routing.getConnection("sa", "")) {
+            connection.setReadOnly(true);
+            assertThat(new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT name FROM node", String.class)).isEqualTo("replica");
+        }
+    }
+
+    @Test
+    void shouldTakeConnectionsFromDecoratedPools() {
+        final var routing = routing(List.of(database("replica")), Duration.ZERO);
+        final var connections = new AtomicInteger();
+        routing.decoratePools(dataSource -> new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                connections.incrementAndGet();
+                return super.getConnection();
+            }
+        });
+
+        assertThat(readOnly(routing)).isEqualTo("replica");
+        assertThat(readWrite(routing)).isEqualTo("primary");
+        assertThat(connections).hasValue(2);
+    }
+
+    private ReadWriteRoutingDataSource routing(List<DataSource> replicas, Duration readYourWrites) {
+        final var routing = new ReadWriteRoutingDataSource(database("primary"), replicas, Duration.ofMinutes(1),
+                readYourWrites);
+        routingDataSources.add(routing);
+        return routing;
+    }
+
+    private static String readOnly(DataSource dataSource) {
+        return nodeName(dataSource, true);
+    }
+
+    private static String readWrite(DataSource dataSource) {
+        return nodeName(dataSource, false);
+    }
+
+    private static String nodeName(DataSource dataSource, boolean readOnly) {
+        final var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+    }
+
+    // every embedded database knows its own name
+    private static DataSource database(String name) {
+        final var dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        final var template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS node (name varchar(32))");
+        template.execute("DELETE FROM node");
+        template.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,126 @@
+package de.workshops.dvdshack.monitoring;
+
+import de.workshops.dvdshack.repository.ActorBatchWriter;
+import de.workshops.dvdshack.repository.ActorJdbcTemplateRepository;
+import de.workshops.dvdshack.repository.ActorJpaRepository;
+import de.workshops.dvdshack.repository.ActorNameIndexRepository;
+import de.workshops.dvdshack.repository.PaymentJdbcTemplateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "dvdshack.monitoring.slow-query-threshold=0ms",
+        "dvdshack.monitoring.slow-query-sample-rate=1.0"
+})
+@ExtendWith(OutputCaptureExtension.class)
+class RepositoryMetricsAspectTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ActorJdbcTemplateRepository actorJdbcTemplateRepository;
+
+    @Autowired
+    private ActorJpaRepository actorJpaRepository;
+
+    @Autowired
+    private ActorNameIndexRepository actorNameIndexRepository;
+
+    @Autowired
+    private ActorBatchWriter actorBatchWriter;
+
+    @Autowired
+    private PaymentJdbcTemplateRepository paymentRepository;
+
+    @Test
+    void shouldRecordMetricsOfJdbcTemplateRepository() {
+        final var actors = actorJdbcTemplateRepository.findAllActorsWithLastName("KILMER");
+
+        final var timer = meterRegistry.find(RepositoryMetricsAspect.INVOCATIONS)
+                .tags("repository", "ActorJdbcTemplateRepository", "method", "findAllActorsWithLastName", "outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isPositive();
+
+        final var rows = meterRegistry.find(RepositoryMetricsAspect.ROWS)
+                .tags("repository", "ActorJdbcTemplateRepository", "method", "findAllActorsWithLastName")
+                .summary();
+        assertThat(rows).isNotNull();
+        assertThat(rows.max()).isEqualTo(actors.size());
+
+        final var statements = meterRegistry.find(RepositoryMetricsAspect.STATEMENTS)
+                .tags("repository", "ActorJdbcTemplateRepository", "method", "findAllActorsWithLastName")
+                .summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.max()).isEqualTo(1);
+
+        assertThat(meterRegistry.find(RepositoryMetricsAspect.CONNECTION_WAIT)
+                .tags("repository", "ActorJdbcTemplateRepository", "method", "findAllActorsWithLastName")
+                .timer()).isNotNull();
+    }
+
+    @Test
+    void shouldRecordMetricsOfJpaRepository() {
+        final var actors = actorJpaRepository.findActorsByLastName("KILMER");
+
+        final var timer = meterRegistry.find(RepositoryMetricsAspect.INVOCATIONS)
+                .tags("repository", "ActorJpaRepository", "method", "findActorsByLastName", "outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isPositive();
+
+        final var rows = meterRegistry.find(RepositoryMetricsAspect.ROWS)
+                .tags("repository", "ActorJpaRepository", "method", "findActorsByLastName")
+                .summary();
+        assertThat(rows).isNotNull();
+        assertThat(rows.max()).isEqualTo(actors.size());
+    }
+
+    @Test
+    void shouldLogSlowStatements(CapturedOutput output) {
+        actorJdbcTemplateRepository.findAllActorsWithLastName("KILMER");
+
+        assertThat(output).contains("Slow statement", "FROM actor WHERE last_name=?");
+    }
+
+    @Test
+    void shouldAttributeStatementsOfWorkerThreadsToRepositoryMethod() {
+        // one query per month, each on a thread of the payment repository
+        paymentRepository.sumAmounts(LocalDateTime.of(2007, 2, 1, 0, 0), LocalDateTime.of(2007, 5, 1, 0, 0));
+
+        final var statements = meterRegistry.find(RepositoryMetricsAspect.STATEMENTS)
+                .tags("repository", "PaymentJdbcTemplateRepository", "method", "sumAmounts")
+                .summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.max()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotRecordHelpersAndScheduledRefreshes() {
+        actorNameIndexRepository.findActorsByNamePrefix("KIL", 10);
+        actorNameIndexRepository.refreshIfChanged();
+        final var deleted = actorBatchWriter.delete(-1);
+        actorBatchWriter.flush();
+        assertThat(deleted.join()).isZero();
+
+        assertThat(meterRegistry.find(RepositoryMetricsAspect.INVOCATIONS)
+                .tags("repository", "ActorNameIndexRepository", "method", "findActorsByNamePrefix")
+                .timer()).isNotNull();
+        assertThat(meterRegistry.find(RepositoryMetricsAspect.INVOCATIONS)
+                .tags("repository", "ActorNameIndexRepository", "method", "refreshIfChanged")
+                .timers()).isEmpty();
+        assertThat(meterRegistry.find(RepositoryMetricsAspect.INVOCATIONS)
+                .tags("repository", "ActorBatchWriter")
+                .timers()).isEmpty();
+    }
+}
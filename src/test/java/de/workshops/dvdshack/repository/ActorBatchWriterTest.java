@@ -0,0 +1,144 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// not transactional, the writer commits every batch in a transaction of its own; created actors are deleted afterwards
+@DataJdbcTest(
+        includeFilters = @ComponentScan.Filter(
+                type = FilterType.ANNOTATION,
+                classes = Repository.class
+        )
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ActorBatchWriterTest {
+
+    @Autowired
+    ActorJdbcTemplateRepository repository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate template;
+
+    int lastActorId;
+
+    final List<ActorBatchWriter> writers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lastActorId = template.queryForObject("SELECT max(actor_id) FROM actor", Integer.class);
+    }
+
+    @AfterEach
+    void closeWritersAndDeleteCreatedActors() {
+        writers.forEach(ActorBatchWriter::close);
+        template.update("DELETE FROM actor WHERE actor_id > ?", lastActorId);
+    }
+
+    @Test
+    void shouldWriteFullBatchAndReturnGeneratedIds() throws Exception {
+        final var writer = writer(3, Duration.ofHours(1));
+
+        final var futures = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(writer.create(Actor.builder().firstName("FIRST" + i).lastName("LAST" + i).build()));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(futures.get(i)).isDone();
+            assertThat(template.queryForObject("SELECT first_name FROM actor WHERE actor_id = ?", String.class,
+                    futures.get(i).get())).isEqualTo("FIRST" + i);
+        }
+    }
+
+    @Test
+    void shouldWritePendingMutationsAfterMaxDelay() throws Exception {
+        final var writer = writer(100, Duration.ofMillis(100));
+
+        final var id = writer.create(Actor.builder().firstName("DELAYED").lastName("WRITE").build());
+
+        assertThat(id.get(5, TimeUnit.SECONDS)).isGreaterThan(lastActorId);
+    }
+
+    @Test
+    void shouldCoalesceUpdatesOfSameActor() throws Exception {
+        final var writer = writer(100, Duration.ofHours(1));
+        final var id = writer.create(Actor.builder().firstName("OLD").lastName("NAME").build());
+        writer.flush();
+
+        final var first = writer.update(Actor.builder().id(id.get()).firstName("FIRST").lastName("UPDATE").build());
+        final var second = writer.update(Actor.builder().id(id.get()).firstName("SECOND").lastName("UPDATE").build());
+        final var missing = writer.update(Actor.builder().id(-1).firstName("NO").lastName("ACTOR").build());
+        writer.flush();
+
+        assertThat(first.get()).isEqualTo(1);
+        assertThat(second.get()).isEqualTo(1);
+        assertThat(missing.get()).isZero();
+        assertThat(template.queryForObject("SELECT first_name FROM actor WHERE actor_id = ?", String.class, id.get()))
+                .isEqualTo("SECOND");
+    }
+
+    @Test
+    void shouldFailOnlyMutationsOfFailingBatch() throws Exception {
+        final var writer = writer(100, Duration.ofHours(1));
+
+        final var created = writer.create(Actor.builder().firstName("STILL").lastName("CREATED").build());
+        // actor 1 plays in films, which restrict its deletion
+        final var actorWithFilms = writer.delete(1);
+        final var unknownActor = writer.delete(-1);
+        writer.flush();
+
+        assertThat(created.get()).isGreaterThan(lastActorId);
+        assertThatThrownBy(actorWithFilms::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(unknownActor::get)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        assertThat(template.queryForObject("SELECT count(*) FROM actor WHERE actor_id = 1", Integer.class)).isOne();
+    }
+
+    @Test
+    void shouldDeleteActors() throws Exception {
+        final var writer = writer(100, Duration.ofHours(1));
+        final var id = writer.create(Actor.builder().firstName("SHORT").lastName("LIVED").build());
+        writer.flush();
+
+        final var deleted = writer.delete(id.get());
+        writer.close();
+
+        assertThat(deleted.get()).isEqualTo(1);
+        assertThat(template.queryForObject("SELECT count(*) FROM actor WHERE actor_id = ?", Integer.class, id.get()))
+                .isZero();
+    }
+
+    private ActorBatchWriter writer(int batchSize, Duration maxDelay) {
+        final var writer = new ActorBatchWriter(repository, transactionTemplate, batchSize, maxDelay);
+        writers.add(writer);
+        return writer;
+    }
+}
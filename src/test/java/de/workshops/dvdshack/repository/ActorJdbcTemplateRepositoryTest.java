@@ -6,9 +6,16 @@ import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJdbcTest(
         includeFilters = @ComponentScan.Filter(
@@ -29,4 +36,55 @@ class ActorJdbcTemplateRepositoryTest {
                 .extracting("lastName")
                 .containsOnly("KILMER");
     }
+
+    @Test
+    void shouldStreamAllActorsByLastName() {
+        try (var actors = repository.streamAllActorsWithLastName("KILMER")) {
+            assertThat(actors.toList())
+                    .containsExactlyInAnyOrderElementsOf(repository.findAllActorsWithLastName("KILMER"));
+        }
+    }
+
+    @Test
+    void shouldPassAllActorsByLastNameToConsumer() {
+        final var actors = new ArrayList<Actor>();
+        repository.forEachActorWithLastName("KILMER", actors::add);
+
+        assertThat(actors)
+                .containsExactlyInAnyOrderElementsOf(repository.findAllActorsWithLastName("KILMER"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldRequireTransactionForStreaming() {
+        assertThatThrownBy(() -> repository.streamAllActorsWithLastName("KILMER"))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void shouldScrollThroughActorsByLastNameAndFirstName(@Autowired JdbcTemplate template) {
+        final var ids = new ArrayList<Integer>();
+        ScrollToken after = null;
+        do {
+            final var page = repository.scrollActorsWithLastNameStartingWithAndFirstNameContaining("", "", after, 7);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(7);
+            page.content().forEach(actor -> ids.add(actor.getId()));
+            after = page.hasNext() ? ScrollToken.decode(page.next().encode()) : null;
+        } while (after != null);
+
+        assertThat(ids).containsExactlyElementsOf(
+                template.queryForList("SELECT actor_id FROM actor ORDER BY last_name, actor_id", Integer.class)
+        );
+    }
+
+    @Test
+    void shouldScrollThroughActorsMatchingPrefixOnly() {
+        final var page = repository.scrollActorsWithLastNameStartingWithAndFirstNameContaining("HO", "EN", null, 2);
+        assertThat(page.content()).hasSize(2);
+        assertThat(page.hasNext()).isTrue();
+
+        final var lastPage = repository.scrollActorsWithLastNameStartingWithAndFirstNameContaining("HO", "EN", page.next(), 2);
+        assertThat(lastPage.content()).hasSize(1);
+        assertThat(lastPage.hasNext()).isFalse();
+    }
 }
@@ -7,8 +7,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.ArrayList;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
@@ -86,4 +89,20 @@ class ActorJpaRepositoryTest {
         assertThat(actors)
                 .hasSize(1);
     }
- }
+
+    @Test
+    void shouldScrollThroughActorsByLastNameAndFirstName() {
+        final var ids = new ArrayList<Integer>();
+        ScrollToken after = null;
+        do {
+            final var page = repository.scrollByLastNameStartingWithAndFirstNameContaining("", "", after, 7);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(7);
+            page.content().forEach(actor -> ids.add(actor.getId()));
+            after = page.hasNext() ? ScrollToken.decode(page.next().encode()) : null;
+        } while (after != null);
+
+        assertThat(ids).containsExactlyElementsOf(
+                repository.findAll(Sort.by("lastName", "id")).stream().map(Actor::getId).toList()
+        );
+    }
+}
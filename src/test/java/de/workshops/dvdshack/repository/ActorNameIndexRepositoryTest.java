@@ -0,0 +1,122 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJdbcTest(
+        includeFilters = @ComponentScan.Filter(
+                type = FilterType.ANNOTATION,
+                classes = Repository.class
+        )
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ActorNameIndexRepositoryTest {
+
+    @Autowired
+    ActorNameIndexRepository repository;
+
+    @Autowired
+    ActorJdbcTemplateRepository jdbcTemplateRepository;
+
+    @Autowired
+    JdbcTemplate template;
+
+    @Autowired
+    ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    // the index outlives the rolled back test transaction
+    @AfterTransaction
+    void reloadIndex() {
+        repository.refresh();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"A", "b", "Wa", "PEN", "JOHANSSON", "GRACE", "x", "ZZZ", "_", "%"})
+    void shouldFindSameActorsAsDatabase(String prefix) {
+        for (int limit : new int[]{1, 10, 1000}) {
+            assertThat(repository.findActorsByNamePrefix(prefix, limit))
+                    .isEqualTo(jdbcTemplateRepository.findActorsByNamePrefix(prefix, limit));
+        }
+    }
+
+    @Test
+    void shouldRankLastNameMatchesFirst() {
+        final var actors = repository.findActorsByNamePrefix("GR", 100);
+
+        assertThat(actors).isNotEmpty();
+        assertThat(actors.get(0).getLastName()).startsWith("GR");
+        assertThat(actors).extracting(Actor::getFirstName).contains("GRACE");
+    }
+
+    @Test
+    void shouldReturnNothingForEmptyPrefix() {
+        assertThat(repository.findActorsByNamePrefix("", 10)).isEmpty();
+        assertThat(repository.findActorsByNamePrefix("A", 0)).isEmpty();
+    }
+
+    @Test
+    void shouldPickUpChangedActorsOnRefresh() {
+        repository.findActorsByNamePrefix("A", 1);
+        assertThat(repository.refreshIfChanged()).isFalse();
+
+        template.update("INSERT INTO actor (first_name, last_name) VALUES ('Quentin', 'Qwertz')");
+        assertThat(repository.refreshIfChanged()).isTrue();
+
+        assertThat(repository.findActorsByNamePrefix("qwe", 10))
+                .extracting(Actor::getFirstName, Actor::getLastName)
+                .containsExactly(tuple("Quentin", "Qwertz"));
+    }
+
+    // not in the test transaction, the late transaction has to commit after the index was loaded
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldPickUpActorsOfTransactionCommittedAfterLoad() throws SQLException {
+        final var repository = new ActorNameIndexRepository(template, changeFeedRepository);
+        final var late = insertActor();
+        final var early = insertActor();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (var statement = connection.prepareStatement("UPDATE actor SET last_name = 'QWERTZ' WHERE actor_id = ?")) {
+                statement.setInt(1, late);
+                statement.executeUpdate();
+            }
+            // committed first, with the latest last_update of the table
+            template.update("UPDATE actor SET first_name = 'QUENTIN' WHERE actor_id = ?", early);
+            repository.refresh();
+            connection.commit();
+
+            assertThat(repository.refreshIfChanged()).isTrue();
+            assertThat(repository.findActorsByNamePrefix("qwe", 10))
+                    .extracting(Actor::getId, Actor::getLastName)
+                    .containsExactly(tuple(late, "QWERTZ"));
+        } finally {
+            template.update("DELETE FROM actor WHERE actor_id IN (?, ?)", late, early);
+        }
+    }
+
+    private int insertActor() {
+        return template.queryForObject(
+                "INSERT INTO actor (first_name, last_name) VALUES ('LATE', 'COMMITTER') RETURNING actor_id", Integer.class);
+    }
+}
@@ -0,0 +1,72 @@
+package de.workshops.dvdshack.repository;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(QueryCountConfiguration.class)
+class BatchingRepositoryTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final int NUMBER_OF_ACTORS = 10 * BATCH_SIZE;
+
+    @Autowired
+    ActorJpaRepository repository;
+
+    @BeforeEach
+    void resetQueryCount() {
+        QueryCountHolder.clear();
+    }
+
+    @Test
+    void shouldInsertActorsInBatches() {
+        final var actors = repository.saveAllBatched(newActors());
+
+        final var queryCount = QueryCountHolder.getGrandTotal();
+        assertThat(queryCount.getInsert()).isEqualTo(NUMBER_OF_ACTORS / BATCH_SIZE);
+        // one "nextval" per block of pooled ids
+        assertThat(queryCount.getSelect()).isLessThanOrEqualTo(NUMBER_OF_ACTORS / BATCH_SIZE + 1);
+        assertThat(actors)
+                .extracting(Actor::getId)
+                .doesNotContainNull()
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldUpdateActorsInBatches() {
+        final var actors = repository.saveAllBatched(newActors());
+        actors.forEach(actor -> actor.setLastName(actor.getLastName().toUpperCase()));
+
+        QueryCountHolder.clear();
+        repository.saveAllBatched(actors);
+
+        final var queryCount = QueryCountHolder.getGrandTotal();
+        assertThat(queryCount.getUpdate()).isEqualTo(NUMBER_OF_ACTORS / BATCH_SIZE);
+        // the detached actors of a batch are loaded with a single select before merging them
+        assertThat(queryCount.getSelect()).isEqualTo(NUMBER_OF_ACTORS / BATCH_SIZE);
+        assertThat(queryCount.getTotal()).isEqualTo(2 * NUMBER_OF_ACTORS / BATCH_SIZE);
+        assertThat(repository.findActorsByLastName("BATCHED-7")).hasSize(1);
+    }
+
+    private static List<Actor> newActors() {
+        return IntStream.range(0, NUMBER_OF_ACTORS)
+                .mapToObj(i -> Actor.builder()
+                        .firstName("Batch")
+                        .lastName("Batched-" + i)
+                        .build())
+                .toList();
+    }
+}
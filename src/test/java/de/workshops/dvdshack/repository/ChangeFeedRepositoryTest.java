@@ -0,0 +1,130 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJdbcTest(
+        includeFilters = @ComponentScan.Filter(
+                type = FilterType.ANNOTATION,
+                classes = Repository.class
+        )
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ChangeFeedRepositoryTest {
+
+    @Autowired
+    ChangeFeedRepository repository;
+
+    @Autowired
+    JdbcTemplate template;
+
+    @Autowired
+    DataSource dataSource;
+
+    // last_update of the rows changed by the test transaction
+    LocalDateTime transactionStart;
+
+    @BeforeEach
+    void setUp() {
+        transactionStart = template.queryForObject("SELECT now()::timestamp", LocalDateTime.class);
+    }
+
+    @Test
+    void shouldFindUpdatedRows() {
+        template.update("UPDATE actor SET first_name = 'PENNY' WHERE actor_id = 5");
+        template.update("UPDATE film_actor SET last_update = last_update WHERE actor_id = 5");
+        final var filmIds = template.queryForList(
+                "SELECT film_id FROM film_actor WHERE actor_id = 5 ORDER BY film_id", Integer.class);
+
+        final var start = ChangePosition.at(transactionStart);
+        assertThat(repository.findChanges(ChangeFeedTable.ACTOR, start, 100))
+                .containsExactly(new Change(ChangeFeedTable.ACTOR, List.of(5), transactionStart));
+        assertThat(repository.findChanges(ChangeFeedTable.FILM_ACTOR, start, 100))
+                .extracting(Change::key)
+                .containsExactlyElementsOf(filmIds.stream().map(filmId -> List.of(5, filmId)).toList());
+        assertThat(repository.findChanges(ChangeFeedTable.FILM, start, 100)).isEmpty();
+    }
+
+    @Test
+    void shouldPageThroughRowsChangedAtTheSameTime() {
+        final var categoryIds = new ArrayList<Integer>();
+        for (int i = 0; i < 5; i++) {
+            categoryIds.add(template.queryForObject(
+                    "INSERT INTO category (name) VALUES (?) RETURNING category_id", Integer.class, "Category " + i));
+        }
+
+        final var keys = new ArrayList<List<Integer>>();
+        var position = ChangePosition.at(transactionStart);
+        List<Change> changes;
+        do {
+            changes = repository.findChanges(ChangeFeedTable.CATEGORY, position, 2);
+            assertThat(changes).hasSizeLessThanOrEqualTo(2);
+            if (!changes.isEmpty()) {
+                changes.forEach(change -> keys.add(change.key()));
+                position = changes.get(changes.size() - 1).position();
+            }
+        } while (!changes.isEmpty());
+
+        assertThat(keys).containsExactlyElementsOf(categoryIds.stream().map(List::of).toList());
+    }
+
+    // not in the test transaction, the open transaction has to end while the test runs
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldHoldBackChangesUntilEarlierTransactionsEnd() throws SQLException {
+        final var start = ChangePosition.at(repository.horizon());
+        final var languageIds = new ArrayList<Integer>();
+        try (Connection open = dataSource.getConnection()) {
+            open.setAutoCommit(false);
+            languageIds.add(insertLanguage(open, "Open"));
+            languageIds.add(template.queryForObject(
+                    "INSERT INTO language (name) VALUES ('Committed') RETURNING language_id", Integer.class));
+
+            assertThat(repository.findChanges(ChangeFeedTable.LANGUAGE, start, 100)).isEmpty();
+
+            open.commit();
+            assertThat(repository.findChanges(ChangeFeedTable.LANGUAGE, start, 100))
+                    .extracting(Change::key)
+                    .containsExactly(List.of(languageIds.get(0)), List.of(languageIds.get(1)));
+        } finally {
+            template.update("DELETE FROM language WHERE language_id = ANY (?)", PostgresTypes.integerArray(languageIds));
+        }
+    }
+
+    @Test
+    void shouldRejectPositionOfOtherTable() {
+        final var position = new ChangePosition(transactionStart, List.of(1));
+
+        assertThatThrownBy(() -> repository.findChanges(ChangeFeedTable.FILM_CATEGORY, position, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int insertLanguage(Connection connection, String name) throws SQLException {
+        try (var statement = connection.prepareStatement("INSERT INTO language (name) VALUES (?) RETURNING language_id")) {
+            statement.setString(1, name);
+            try (var rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
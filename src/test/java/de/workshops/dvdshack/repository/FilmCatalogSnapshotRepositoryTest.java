@@ -0,0 +1,150 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJdbcTest(
+        includeFilters = @ComponentScan.Filter(
+                type = FilterType.ANNOTATION,
+                classes = Repository.class
+        )
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FilmCatalogSnapshotRepositoryTest {
+
+    @Autowired
+    FilmCatalogSnapshotRepository repository;
+
+    @Autowired
+    FilmJdbcTemplateRepository jdbcTemplateRepository;
+
+    @Autowired
+    JdbcTemplate template;
+
+    @Autowired
+    ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    // the snapshot outlives the rolled back test transaction
+    @AfterTransaction
+    void reloadSnapshot() {
+        repository.refresh();
+    }
+
+    @Test
+    void shouldFindSameFilmsWithRatingAsDatabase() {
+        for (Rating rating : Rating.values()) {
+            assertThat(repository.findAllFilmsWithRating(rating))
+                    .extracting(Film::getId, Film::getTitle, Film::getRating)
+                    .containsExactlyInAnyOrderElementsOf(
+                            jdbcTemplateRepository.findAllFilmsWithRating(rating).stream()
+                                    .map(film -> tuple(film.getId(), film.getTitle(), film.getRating()))
+                                    .toList()
+                    );
+        }
+    }
+
+    @Test
+    void shouldFindSameLongFilmsAsDatabase() {
+        assertThat(repository.findAllFilmsWithMinimumLength(180))
+                .isNotEmpty()
+                .extracting(Film::getId, Film::getTitle, Film::getLength)
+                .containsExactlyInAnyOrderElementsOf(
+                        jdbcTemplateRepository.findAllFilmsWithMinimumLength(180).stream()
+                                .map(film -> tuple(film.getId(), film.getTitle(), film.getLength()))
+                                .toList()
+                );
+    }
+
+    @Test
+    void shouldFindSameFilmsWithSpecialFeatureAsDatabase() {
+        final var films = repository.findAllFilmsHavingSpecialFeature("Deleted Scenes");
+        assertThat(films)
+                .isNotEmpty()
+                .allMatch(film -> film.getSpecialFeatures().contains("Deleted Scenes"))
+                .extracting(Film::getId)
+                .containsExactlyInAnyOrderElementsOf(
+                        jdbcTemplateRepository.findAllFilmsHavingSpecialFeature("Deleted Scenes").stream()
+                                .map(Film::getId)
+                                .toList()
+                );
+
+        assertThat(repository.findAllFilmsHavingSpecialFeature("Director's Cut")).isEmpty();
+    }
+
+    @Test
+    void shouldRefreshOnlyIfFilmTableChanged() {
+        repository.findAllFilmsWithMinimumLength(0);
+        assertThat(repository.refreshIfChanged()).isFalse();
+
+        template.update("UPDATE film SET length = 999 WHERE film_id = 1");
+
+        assertThat(repository.refreshIfChanged()).isTrue();
+        assertThat(repository.findAllFilmsWithMinimumLength(999))
+                .extracting(Film::getId)
+                .containsExactly(1);
+    }
+
+    // not in the test transaction, the late transaction has to commit after the snapshot was loaded
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldRefreshForFilmsOfTransactionCommittedAfterLoad() throws SQLException {
+        final var repository = new FilmCatalogSnapshotRepository(template, changeFeedRepository);
+        final var late = insertFilm();
+        final var early = insertFilm();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (var statement = connection.prepareStatement("UPDATE film SET length = 999 WHERE film_id = ?")) {
+                statement.setInt(1, late);
+                statement.executeUpdate();
+            }
+            // committed first, with the latest last_update of the table
+            template.update("UPDATE film SET length = 998 WHERE film_id = ?", early);
+            repository.refresh();
+            connection.commit();
+
+            assertThat(repository.refreshIfChanged()).isTrue();
+            assertThat(repository.findAllFilmsWithMinimumLength(999))
+                    .extracting(Film::getId)
+                    .containsExactly(late);
+        } finally {
+            template.update("DELETE FROM film WHERE film_id IN (?, ?)", late, early);
+        }
+    }
+
+    @Test
+    void shouldSkipFilmsWithoutLength() {
+        template.update("UPDATE film SET length = NULL WHERE film_id = 1");
+        repository.refresh();
+
+        assertThat(repository.findAllFilmsWithMinimumLength(0))
+                .extracting(Film::getId)
+                .doesNotContain(1)
+                .containsExactlyInAnyOrderElementsOf(
+                        jdbcTemplateRepository.findAllFilmsWithMinimumLength(0).stream().map(Film::getId).toList()
+                );
+    }
+
+    private int insertFilm() {
+        return template.queryForObject(
+                "INSERT INTO film (title, language_id, length) VALUES ('LATE COMMIT', 1, 90) RETURNING film_id", Integer.class);
+    }
+}
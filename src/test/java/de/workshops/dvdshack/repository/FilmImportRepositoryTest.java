@@ -0,0 +1,178 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// not transactional, every batch commits in a transaction of its own; imported films are deleted afterwards
+@DataJdbcTest(
+        includeFilters = @ComponentScan.Filter(
+                type = FilterType.ANNOTATION,
+                classes = Repository.class
+        )
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FilmImportRepositoryTest {
+
+    private static final int FILMS = 20_000;
+
+    @Autowired
+    FilmImportRepository repository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate template;
+
+    int lastFilmId;
+
+    @BeforeEach
+    void setUp() {
+        lastFilmId = template.queryForObject("SELECT max(film_id) FROM film", Integer.class);
+    }
+
+    @AfterEach
+    void deleteImportedFilms() {
+        template.update("DELETE FROM film_actor WHERE film_id > ?", lastFilmId);
+        template.update("DELETE FROM film_category WHERE film_id > ?", lastFilmId);
+        template.update("DELETE FROM film WHERE film_id > ?", lastFilmId);
+    }
+
+    @Test
+    void shouldImportLargeCatalog() {
+        final var actors = template.query("SELECT first_name, last_name FROM actor WHERE actor_id <= 200",
+                (rs, rowNum) -> new FilmImport.ActorName(rs.getString(1), rs.getString(2)));
+        final var categories = template.queryForList("SELECT name FROM category WHERE category_id <= 16", String.class);
+        final var films = new ArrayList<FilmImport>(FILMS);
+        for (int i = 0; i < FILMS; i++) {
+            films.add(film("IMPORTED FILM " + i)
+                    .actors(List.of(actors.get(i % 200), actors.get((i + 1) % 200), actors.get((i + 2) % 200),
+                            actors.get((i + 3) % 200), actors.get((i + 4) % 200)))
+                    .categories(List.of(categories.get(i % 16), categories.get((i + 1) % 16)))
+                    .build());
+        }
+
+        final var report = repository.importFilms(films);
+
+        assertThat(report.filmsRead()).isEqualTo(FILMS);
+        assertThat(report.filmsImported()).isEqualTo(FILMS);
+        assertThat(report.filmsRejected()).isZero();
+        assertThat(report.actorLinks()).isEqualTo(FILMS * 5L);
+        assertThat(report.categoryLinks()).isEqualTo(FILMS * 2L);
+        assertThat(report.filmsPerSecond()).isPositive();
+        assertThat(count("SELECT count(*) FROM film WHERE film_id > ?")).isEqualTo(FILMS);
+        assertThat(count("SELECT count(*) FROM film_actor WHERE film_id > ?")).isEqualTo(FILMS * 5);
+        assertThat(count("SELECT count(*) FROM film_category WHERE film_id > ?")).isEqualTo(FILMS * 2);
+    }
+
+    @Test
+    void shouldImportAllColumnsAndResolveReferencesIgnoringCase() {
+        final var report = repository.importFilms(List.of(film("TAB\tAND \\BACKSLASH")
+                .description("line one\nline two")
+                .releaseYear(Year.of(2024))
+                .originalLanguage("german")
+                .length((short) 123)
+                .rating(Rating.PG_13)
+                .specialFeatures(List.of("Trailers", "\"Quoted\" \\ Scenes"))
+                .categories(List.of("Action", "action", "Comedy"))
+                .actors(List.of(new FilmImport.ActorName("susan", "davis")))
+                .build()));
+
+        assertThat(report.filmsImported()).isOne();
+        final var filmId = template.queryForObject("SELECT film_id FROM film WHERE film_id > ?", Integer.class, lastFilmId);
+        final var film = template.queryForObject("""
+                SELECT f.title, f.description, f.release_year, l.name, ol.name, f.rental_duration, f.rental_rate,
+                       f.length, f.replacement_cost, f.rating, f.special_features, f.fulltext IS NOT NULL
+                FROM film f
+                JOIN language l ON l.language_id = f.language_id
+                JOIN language ol ON ol.language_id = f.original_language_id
+                WHERE f.film_id = ?""", (rs, rowNum) -> List.of(
+                rs.getString(1), rs.getString(2), PostgresTypes.getYear(rs, 3), rs.getString(4).strip(),
+                rs.getString(5).strip(), rs.getShort(6), rs.getBigDecimal(7), rs.getShort(8), rs.getBigDecimal(9),
+                PostgresTypes.getRating(rs, 10), PostgresTypes.getTextArray(rs, 11), rs.getBoolean(12)), filmId);
+        assertThat(film).containsExactly("TAB\tAND \\BACKSLASH", "line one\nline two", Year.of(2024), "English",
+                "German", (short) 5, new BigDecimal("2.99"), (short) 123, new BigDecimal("14.99"), Rating.PG_13,
+                List.of("Trailers", "\"Quoted\" \\ Scenes"), true);
+        assertThat(template.queryForList("SELECT c.name FROM film_category fc JOIN category c USING (category_id) WHERE fc.film_id = ? ORDER BY c.name",
+                String.class, filmId)).containsExactly("Action", "Comedy");
+        assertThat(template.queryForList("SELECT actor_id FROM film_actor WHERE film_id = ?", Integer.class, filmId))
+                .containsExactly(template.queryForObject(
+                        "SELECT min(actor_id) FROM actor WHERE first_name = 'SUSAN' AND last_name = 'DAVIS'", Integer.class));
+    }
+
+    @Test
+    void shouldRejectFilmsWithMissingValuesOrUnknownReferences() {
+        final var report = repository.importFilms(List.of(
+                film("VALID").build(),
+                film(" ").build(),
+                film("UNKNOWN LANGUAGE").language("Klingon").build(),
+                film("UNKNOWN CATEGORY").categories(List.of("Western")).build(),
+                film("UNKNOWN ACTOR").actors(List.of(new FilmImport.ActorName("NOBODY", "KNOWN"))).build(),
+                film("NO RATE").rentalRate(null).build()
+        ));
+
+        assertThat(report.filmsRead()).isEqualTo(6);
+        assertThat(report.filmsImported()).isOne();
+        assertThat(report.filmsRejected()).isEqualTo(5);
+        assertThat(report.errors()).containsExactly(
+                "Film 2: title, language, rental duration, rental rate and replacement cost are required",
+                "Film 3: unknown language \"Klingon\"",
+                "Film 4: unknown category \"Western\"",
+                "Film 5: unknown actor \"NOBODY KNOWN\"",
+                "Film 6: title, language, rental duration, rental rate and replacement cost are required"
+        );
+        assertThat(template.queryForList("SELECT title FROM film WHERE film_id > ?", String.class, lastFilmId))
+                .containsExactly("VALID");
+    }
+
+    @Test
+    void shouldRejectOnlyFailingBatch() {
+        final var smallBatches = new FilmImportRepository(template, transactionTemplate, 2);
+
+        final var report = smallBatches.importFilms(List.of(
+                film("FIRST").build(),
+                film("SECOND").build(),
+                film("T".repeat(256)).build(),
+                film("FOURTH").build(),
+                film("FIFTH").build()
+        ));
+
+        assertThat(report.filmsImported()).isEqualTo(3);
+        assertThat(report.filmsRejected()).isEqualTo(2);
+        assertThat(report.errors()).singleElement().asString().startsWith("Films 3 to 4: ");
+        assertThat(template.queryForList("SELECT title FROM film WHERE film_id > ? ORDER BY film_id", String.class,
+                lastFilmId)).containsExactly("FIRST", "SECOND", "FIFTH");
+    }
+
+    private static FilmImport.FilmImportBuilder film(String title) {
+        return FilmImport.builder()
+                .title(title)
+                .language("English")
+                .rentalDuration((short) 5)
+                .rentalRate(new BigDecimal("2.99"))
+                .replacementCost(new BigDecimal("14.99"));
+    }
+
+    private int count(String sql) {
+        return template.queryForObject(sql, Integer.class, lastFilmId);
+    }
+}
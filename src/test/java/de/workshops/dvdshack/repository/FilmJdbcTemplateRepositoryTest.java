@@ -6,9 +6,11 @@ import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.time.Year;
+import java.util.ArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -33,6 +35,21 @@ class FilmJdbcTemplateRepositoryTest {
         assertThat(count).isEqualTo(1000);
     }
 
+    @Test
+    void shouldReuseServerSidePreparedStatementForAllRatings(@Autowired JdbcTemplate template) {
+        for (int i = 0; i < 10; i++) {
+            for (Rating rating : Rating.values()) {
+                repository.findAllFilmsWithRating(rating);
+            }
+        }
+
+        final var statements = template.queryForList(
+                "SELECT generic_plans + custom_plans AS executions FROM pg_prepared_statements WHERE statement LIKE '%FROM film WHERE rating=$1'",
+                Long.class);
+        assertThat(statements).singleElement()
+                .satisfies(executions -> assertThat(executions).isGreaterThan(40));
+    }
+
     @Test
     void shouldFindAllFilmsWithSameRating() {
         final var filmsByRating = repository.findAllFilmsWithRating(Rating.PG_13);
@@ -69,4 +86,44 @@ class FilmJdbcTemplateRepositoryTest {
                 .allMatch(film -> film.getSpecialFeatures().contains("Deleted Scenes"));
     }
 
+    @Test
+    void shouldStreamAllLongFilms() {
+        try (var films = repository.streamAllFilmsWithMinimumLength(180)) {
+            assertThat(films.map(Film::getId).toList())
+                    .containsExactlyInAnyOrderElementsOf(
+                            repository.findAllFilmsWithMinimumLength(180).stream().map(Film::getId).toList()
+                    );
+        }
+    }
+
+    @Test
+    void shouldPassFilmsWithSpecialFeatureToConsumer() {
+        final var films = new ArrayList<Film>();
+        repository.forEachFilmHavingSpecialFeature("Deleted Scenes", films::add);
+
+        assertThat(films).isNotEmpty()
+                .allMatch(film -> film.getSpecialFeatures().contains("Deleted Scenes"))
+                .extracting(Film::getId)
+                .containsExactlyInAnyOrderElementsOf(
+                        repository.findAllFilmsHavingSpecialFeature("Deleted Scenes").stream().map(Film::getId).toList()
+                );
+    }
+
+    @Test
+    void shouldScrollThroughFilmsWithSameRating(@Autowired JdbcTemplate template) {
+        final var ids = new ArrayList<Integer>();
+        ScrollToken after = null;
+        do {
+            final var page = repository.scrollFilmsWithRating(Rating.PG_13, after, 25);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(25)
+                    .extracting(Film::getRating)
+                    .containsOnly(Rating.PG_13);
+            page.content().forEach(film -> ids.add(film.getId()));
+            after = page.next();
+        } while (after != null);
+
+        assertThat(ids).containsExactlyElementsOf(
+                template.queryForList("SELECT film_id FROM film WHERE rating = 'PG-13' ORDER BY title, film_id", Integer.class)
+        );
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import java.time.Year;
+import java.util.ArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -65,4 +66,22 @@ class FilmJpaRepositoryTest {
         assertThat(films)
                 .hasSize(6); // This is unexpected, because the title is unique and hence there should be only entry here.
     }
+
+    @Test
+    void shouldScrollThroughFilmsWithSameRating() {
+        final var ids = new ArrayList<Integer>();
+        ScrollToken after = null;
+        do {
+            final var page = repository.scrollByRating(Rating.PG_13, after, 25);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(25)
+                    .extracting(Film::getRating)
+                    .containsOnly(Rating.PG_13);
+            page.content().forEach(film -> ids.add(film.getId()));
+            after = page.next();
+        } while (after != null);
+
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(
+                repository.findAllFilmsByRating(Rating.PG_13).stream().map(Film::getId).toList()
+        );
+    }
 }
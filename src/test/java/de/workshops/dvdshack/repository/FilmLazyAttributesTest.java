@@ -0,0 +1,113 @@
+package de.workshops.dvdshack.repository;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(QueryCountConfiguration.class)
+class FilmLazyAttributesTest {
+
+    private static final int MANAGED_FILMS = 10_000;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate template;
+
+    @Test
+    void shouldLoadDetailsOnlyWhenAccessed() {
+        final var film = entityManager.find(Film.class, 1);
+
+        assertThat(film).isInstanceOf(SelfDirtinessTracker.class);
+        assertThat(Hibernate.isPropertyInitialized(film, "description")).isFalse();
+        assertThat(Hibernate.isPropertyInitialized(film, "specialFeatures")).isFalse();
+
+        QueryCountHolder.clear();
+        assertThat(film.getDescription()).isNotBlank();
+        final var queryCount = QueryCountHolder.getGrandTotal().getSelect();
+
+        assertThat(queryCount).isEqualTo(1);
+        assertThat(Hibernate.isPropertyInitialized(film, "specialFeatures")).isTrue();
+        assertThat(film.getSpecialFeatures()).isNotEmpty();
+    }
+
+    @Test
+    void shouldCompareFilmsWithoutLoadingAnything() {
+        final var films = entityManager.createQuery("SELECT f FROM Film f", Film.class).getResultList();
+
+        QueryCountHolder.clear();
+        final var set = new HashSet<>(films);
+        final var contained = films.stream().allMatch(set::contains);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(contained).isTrue();
+        assertThat(set).hasSameSizeAs(films);
+        assertThat(queryCount).isZero();
+        assertThat(films).allSatisfy(film -> {
+            assertThat(Hibernate.isInitialized(film.getActors())).isFalse();
+            assertThat(Hibernate.isInitialized(film.getCategories())).isFalse();
+            assertThat(Hibernate.isPropertyInitialized(film, "description")).isFalse();
+        });
+    }
+
+    @Test
+    void shouldFindNewFilmInSetAfterPersisting() {
+        final var film = new Film();
+        film.setTitle("HASHED BEFORE PERSIST");
+        film.setLanguage(entityManager.getReference(Language.class, 1));
+        film.setRentalDuration((short) 3);
+        film.setRentalRate(new BigDecimal("4.99"));
+        film.setReplacementCost(new BigDecimal("19.99"));
+        final var set = new HashSet<Film>();
+        set.add(film);
+
+        entityManager.persist(film);
+
+        assertThat(film.getId()).isNotZero();
+        assertThat(set).contains(film);
+    }
+
+    @Test
+    void shouldFlushOnlyChangedFilmsOfManyManaged() {
+        template.update("""
+                INSERT INTO film (title, description, language_id, length)
+                SELECT 'LAZY FILM ' || g, 'A film loaded lazily', 1, 90
+                FROM generate_series(1, ? - (SELECT count(*) FROM film)) g""", MANAGED_FILMS);
+        final var films = entityManager.createQuery("SELECT f FROM Film f", Film.class).getResultList();
+        assertThat(films).hasSizeGreaterThanOrEqualTo(MANAGED_FILMS);
+
+        final var changed = films.get(films.size() / 2);
+        changed.setTitle(changed.getTitle() + " REVISITED");
+        assertThat(((SelfDirtinessTracker) changed).$$_hibernate_getDirtyAttributes()).containsExactly("title");
+
+        QueryCountHolder.clear();
+        final var start = System.nanoTime();
+        entityManager.flush();
+        final var flushTime = Duration.ofNanos(System.nanoTime() - start);
+        final var counts = QueryCountHolder.getGrandTotal();
+        // visiting the entities and their collections remains, comparing their state to the loaded one is gone
+        log.info("Flushed {} managed films with one changed in {} ms", films.size(), flushTime.toMillis());
+
+        assertThat(counts.getUpdate()).isEqualTo(1);
+        assertThat(counts.getSelect()).isZero();
+    }
+}
@@ -0,0 +1,73 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJdbcTest(
+        includeFilters = @ComponentScan.Filter(
+                type = FilterType.ANNOTATION,
+                classes = Repository.class
+        )
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FilmSearchRepositoryTest {
+
+    @Autowired
+    FilmSearchRepository repository;
+
+    @Test
+    void shouldFindFilmsRankedWithHighlightedHeadline() {
+        final var page = repository.searchFilms("scientist", null, 100);
+
+        assertThat(page.content()).isNotEmpty()
+                .isSortedAccordingTo(Comparator.comparing(FilmSearchResult::rank).reversed())
+                .allSatisfy(result -> assertThat(result.headline()).containsIgnoringCase("<b>scientist</b>"));
+    }
+
+    @Test
+    void shouldSupportWebSearchSyntax() {
+        final var all = repository.searchFilms("drama", null, 1000).content();
+        final var withoutBoats = repository.searchFilms("drama -boat", null, 1000).content();
+
+        assertThat(all).extracting(FilmSearchResult::title)
+                .contains("ACADEMY DINOSAUR");
+        assertThat(withoutBoats).isNotEmpty()
+                .hasSizeLessThan(all.size())
+                .noneSatisfy(result -> assertThat(result.headline()).containsIgnoringCase("<b>boat</b>"));
+    }
+
+    @Test
+    void shouldScrollThroughAllMatches() {
+        final var expected = repository.searchFilms("drama", null, 1000).content();
+
+        final var scrolled = new ArrayList<FilmSearchResult>();
+        ScrollToken after = null;
+        do {
+            final var page = repository.searchFilms("drama", after == null ? null : ScrollToken.decode(after.encode()), 7);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(7);
+            scrolled.addAll(page.content());
+            after = page.next();
+        } while (after != null);
+
+        assertThat(expected).hasSizeGreaterThan(7);
+        assertThat(scrolled).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void shouldReturnEmptyPageForBlankQuery() {
+        final var page = repository.searchFilms("  ", null, 10);
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+    }
+}
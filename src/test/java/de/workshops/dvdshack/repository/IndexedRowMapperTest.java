@@ -0,0 +1,68 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Year;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class IndexedRowMapperTest {
+
+    @Autowired
+    JdbcTemplate template;
+
+    @Test
+    void shouldMapAllFilmColumns() {
+        final var film = template.queryForObject("SELECT * FROM film WHERE film_id = 1", new FilmRowMapper());
+
+        assertThat(film).isNotNull();
+        assertThat(film.getId()).isEqualTo(1);
+        assertThat(film.getTitle()).isEqualTo("ACADEMY DINOSAUR");
+        assertThat(film.getDescription()).isNotBlank();
+        assertThat(film.getReleaseYear()).isEqualTo(Year.of(2006));
+        assertThat(film.getRentalDuration()).isEqualTo((short) 6);
+        assertThat(film.getRentalRate()).isEqualByComparingTo(new BigDecimal("0.99"));
+        assertThat(film.getLength()).isEqualTo((short) 86);
+        assertThat(film.getReplacementCost()).isEqualByComparingTo(new BigDecimal("20.99"));
+        assertThat(film.getRating()).isEqualTo(Rating.PG);
+        assertThat(film.getSpecialFeatures()).containsExactly("Deleted Scenes", "Behind the Scenes");
+    }
+
+    @Test
+    void shouldSkipColumnsMissingFromResultSet() {
+        final var film = template.queryForObject("SELECT film_id, title FROM film WHERE film_id = 1", new FilmRowMapper());
+
+        assertThat(film).isNotNull();
+        assertThat(film.getId()).isEqualTo(1);
+        assertThat(film.getTitle()).isEqualTo("ACADEMY DINOSAUR");
+        assertThat(film.getRating()).isNull();
+        assertThat(film.getSpecialFeatures()).isNull();
+    }
+
+    @Test
+    void shouldMapActorsCategoriesAndLanguages() {
+        final var actors = template.query("SELECT * FROM actor ORDER BY actor_id", new ActorRowMapper());
+        assertThat(actors).hasSizeGreaterThanOrEqualTo(200);
+        assertThat(actors.get(0).getId()).isEqualTo(1);
+        assertThat(actors.get(0).getFirstName()).isEqualTo("PENELOPE");
+        assertThat(actors.get(0).getLastName()).isEqualTo("GUINESS");
+        assertThat(actors).allSatisfy(actor -> assertThat(actor.getLastUpdate()).isNotNull());
+
+        final var categories = template.query("SELECT * FROM category ORDER BY category_id", new CategoryRowMapper());
+        assertThat(categories).hasSize(16)
+                .extracting(Category::getName)
+                .contains("Action", "Sci-Fi");
+
+        final var languages = template.query("SELECT * FROM language ORDER BY language_id", new LanguageRowMapper());
+        assertThat(languages).hasSize(6)
+                .extracting(language -> language.getName().trim())
+                .startsWith("English");
+    }
+}
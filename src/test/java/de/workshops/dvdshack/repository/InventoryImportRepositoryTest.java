@@ -0,0 +1,148 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJdbcTest(
+        includeFilters = @ComponentScan.Filter(
+                type = FilterType.ANNOTATION,
+                classes = Repository.class
+        )
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class InventoryImportRepositoryTest {
+
+    private static final int ROWS = 200_000;
+
+    @Autowired
+    InventoryImportRepository repository;
+
+    @Autowired
+    JdbcTemplate template;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    void shouldImportLargeFile() {
+        final var before = countInventory();
+        final var csv = new StringBuilder("film_id,store_id\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(i % 1000 + 1).append(',').append(i % 2 + 1).append('\n');
+        }
+
+        final var report = repository.importInventory(inputStream(csv.toString()));
+
+        assertThat(report.linesRead()).isEqualTo(ROWS);
+        assertThat(report.rowsImported()).isEqualTo(ROWS);
+        assertThat(report.linesInvalid()).isZero();
+        assertThat(report.linesRejected()).isZero();
+        assertThat(report.rowsPerSecond()).isPositive();
+        assertThat(countInventory()).isEqualTo(before + ROWS);
+    }
+
+    @Test
+    void shouldSkipInvalidLinesAndRejectUnknownFilmsAndStores() {
+        final var before = countInventory();
+
+        final var report = repository.importInventory(inputStream("""
+                film_id,store_id
+                1,1
+                x,1
+                2,2,3
+
+                999999,1
+                3,99
+                4,2
+                """));
+
+        assertThat(report.linesRead()).isEqualTo(6);
+        assertThat(report.linesInvalid()).isEqualTo(2);
+        assertThat(report.linesRejected()).isEqualTo(2);
+        assertThat(report.rowsImported()).isEqualTo(2);
+        assertThat(report.errors()).containsExactly(
+                "Line 3: expected two positive ids, got \"x,1\"",
+                "Line 4: expected two positive ids, got \"2,2,3\"",
+                "Line 6: unknown film or store",
+                "Line 7: unknown film or store"
+        );
+        assertThat(countInventory()).isEqualTo(before + 2);
+    }
+
+    @Test
+    @Timeout(60)
+    void shouldStopParserWhenCopyFailsMidFile() throws Exception {
+        final Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            final var pid = new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT pg_backend_pid()", Integer.class);
+            // the connection is lost while copying an endless file, by then the queue of parsed chunks is full
+            final var termination = CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                template.execute("SELECT pg_terminate_backend(" + pid + ")");
+            });
+
+            assertThatThrownBy(() -> new InventoryCsvImporter(connection).importCsv(endlessCsv()))
+                    .isInstanceOf(SQLException.class);
+            termination.join();
+        } finally {
+            // closing rolls back, which fails on the terminated connection; the pool evicts it anyway
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        for (var thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("inventory-import-parser")) {
+                thread.join(Duration.ofSeconds(5).toMillis());
+                assertThat(thread.isAlive()).isFalse();
+            }
+        }
+    }
+
+    private int countInventory() {
+        return template.queryForObject("SELECT count(*) FROM inventory", Integer.class);
+    }
+
+    private static InputStream endlessCsv() {
+        final var line = "1,1\n".getBytes(StandardCharsets.UTF_8);
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                return line[position++ % line.length];
+            }
+        };
+    }
+
+    private static ByteArrayInputStream inputStream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
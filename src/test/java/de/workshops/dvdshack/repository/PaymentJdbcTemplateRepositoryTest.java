@@ -0,0 +1,92 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJdbcTest(
+        includeFilters = @ComponentScan.Filter(
+                type = FilterType.ANNOTATION,
+                classes = Repository.class
+        )
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PaymentJdbcTemplateRepositoryTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2005, 5, 27, 12, 30);
+
+    private static final LocalDateTime TO = LocalDateTime.of(2006, 6, 1, 0, 0);
+
+    @Autowired
+    PaymentJdbcTemplateRepository repository;
+
+    @Autowired
+    JdbcTemplate template;
+
+    @Test
+    void shouldSumAmountsLikeSingleScan() {
+        final var sum = repository.sumAmounts(FROM, TO);
+
+        assertThat(sum).isPositive().isEqualByComparingTo(template.queryForObject(
+                "SELECT sum(amount) FROM payment WHERE payment_date >= ? AND payment_date < ?",
+                BigDecimal.class, Timestamp.valueOf(FROM), Timestamp.valueOf(TO)));
+    }
+
+    @Test
+    void shouldFindDailyRevenueLikeSingleScan() {
+        final var revenue = repository.findDailyRevenue(FROM, TO);
+
+        final var expected = new HashMap<LocalDate, BigDecimal>();
+        template.query("SELECT payment_date::date, sum(amount) FROM payment WHERE payment_date >= ? AND payment_date < ? GROUP BY 1",
+                (RowCallbackHandler) rs -> expected.put(rs.getDate(1).toLocalDate(), rs.getBigDecimal(2)),
+                Timestamp.valueOf(FROM), Timestamp.valueOf(TO));
+        assertThat(revenue).isEqualTo(expected);
+        assertThat(revenue.firstKey()).isAfterOrEqualTo(FROM.toLocalDate());
+    }
+
+    @Test
+    void shouldFindPaymentsOfAllMonthsInOrder() {
+        final var payments = repository.findPayments(FROM, TO);
+
+        assertThat(payments).hasSize(template.queryForObject(
+                "SELECT count(*) FROM payment WHERE payment_date >= ? AND payment_date < ?",
+                Integer.class, Timestamp.valueOf(FROM), Timestamp.valueOf(TO)));
+        assertThat(payments)
+                .isSortedAccordingTo(Comparator.comparing(Payment::paymentDate).thenComparing(Payment::id))
+                .allSatisfy(payment -> assertThat(payment.paymentDate()).isAfterOrEqualTo(FROM).isBefore(TO));
+    }
+
+    @Test
+    void shouldReturnNothingForEmptyRange() {
+        assertThat(repository.findPayments(FROM, FROM)).isEmpty();
+        assertThat(repository.sumAmounts(FROM, FROM)).isZero();
+        assertThat(repository.findDailyRevenue(TO, FROM)).isEmpty();
+    }
+
+    @Test
+    void shouldSplitRangeIntoCalendarMonths() {
+        final var months = PaymentJdbcTemplateRepository.Month.between(
+                LocalDateTime.of(2007, 1, 15, 10, 0), LocalDateTime.of(2007, 3, 2, 0, 0));
+
+        assertThat(months).extracting(month -> month.from().toLocalDateTime()).containsExactly(
+                LocalDateTime.of(2007, 1, 15, 10, 0),
+                LocalDateTime.of(2007, 2, 1, 0, 0),
+                LocalDateTime.of(2007, 3, 1, 0, 0));
+        assertThat(months.get(months.size() - 1).to().toLocalDateTime()).isEqualTo(LocalDateTime.of(2007, 3, 2, 0, 0));
+    }
+}
@@ -0,0 +1,114 @@
+package de.workshops.dvdshack.repository;
+
+import de.workshops.dvdshack.QueryCountConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Year;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(QueryCountConfiguration.class)
+class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    FilmJpaRepository filmJpaRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearCaches() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void shouldLoadLanguageFromCache() {
+        final var hits = cacheRequests(CacheRegions.LANGUAGE, "hit");
+        load(Language.class, 1);
+
+        QueryCountHolder.clear();
+        final var language = load(Language.class, 1);
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(language.getName().trim()).isEqualTo("English");
+        assertThat(queryCount).isZero();
+        assertThat(cacheRequests(CacheRegions.LANGUAGE, "hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void shouldLoadCategoriesOfFilmFromCache() {
+        transactionTemplate.executeWithoutResult(status ->
+                assertThat(filmJpaRepository.findById(1).orElseThrow().getCategories()).isNotEmpty());
+
+        QueryCountHolder.clear();
+        final var categories = transactionTemplate.execute(status ->
+                filmJpaRepository.findById(1).orElseThrow().getCategories().stream().map(Category::getName).toList());
+        final var queryCount = QueryCountHolder.getGrandTotal().getTotal();
+
+        assertThat(categories).containsExactly("Documentary");
+        // the film itself is not cached
+        assertThat(queryCount).isEqualTo(1);
+        assertThat(cacheRequests(CacheRegions.FILM_CATEGORIES, "hit")).isPositive();
+        assertThat(cacheRequests(CacheRegions.CATEGORY, "hit")).isPositive();
+    }
+
+    @Test
+    void shouldCacheFilmCountsUntilFilmsAreWritten() {
+        final var count = filmJpaRepository.countFilmsByReleaseYear(Year.of(2006));
+
+        QueryCountHolder.clear();
+        assertThat(filmJpaRepository.countFilmsByReleaseYear(Year.of(2006))).isEqualTo(count);
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isZero();
+
+        final var film = transactionTemplate.execute(status -> filmJpaRepository.save(newFilm()));
+        try {
+            assertThat(filmJpaRepository.countFilmsByReleaseYear(Year.of(2006))).isEqualTo(count + 1);
+        } finally {
+            filmJpaRepository.deleteById(film.getId());
+        }
+        assertThat(filmJpaRepository.countFilmsByReleaseYear(Year.of(2006))).isEqualTo(count);
+        assertThat(cacheRequests(CacheRegions.FILM_COUNTS, "hit")).isPositive();
+    }
+
+    private <T> T load(Class<T> type, int id) {
+        try (var entityManager = entityManagerFactory.createEntityManager()) {
+            return entityManager.find(type, id);
+        }
+    }
+
+    private double cacheRequests(String region, String result) {
+        return meterRegistry.get("dvdshack.cache.requests")
+                .tag("region", region)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private Film newFilm() {
+        final var film = new Film();
+        film.setTitle("CACHED COUNT");
+        film.setReleaseYear(Year.of(2006));
+        film.setLanguage(load(Language.class, 1));
+        film.setRentalDuration((short) 3);
+        film.setRentalRate(new BigDecimal("4.99"));
+        film.setReplacementCost(new BigDecimal("19.99"));
+        return film;
+    }
+}
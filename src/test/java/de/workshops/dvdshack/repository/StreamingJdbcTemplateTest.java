@@ -0,0 +1,65 @@
+package de.workshops.dvdshack.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs with a small heap (see the "low-memory-tests" execution in pom.xml), in which the generated rows
+ * would not fit if they were materialized into a list.
+ */
+@Tag("low-memory")
+@DataJdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class StreamingJdbcTemplateTest {
+
+    private static final int NUMBER_OF_ROWS = 2_000_000;
+
+    private static final String GENERATED_ACTORS = """
+            SELECT i AS actor_id, md5(i::text) AS first_name, md5((-i)::text) AS last_name
+            FROM generate_series(1, ?) AS i""";
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    void shouldStreamLargeResultWithFlatMemory() {
+        final var streamingTemplate = new StreamingJdbcTemplate(dataSource, 1000);
+
+        try (var actors = streamingTemplate.queryForStream(GENERATED_ACTORS, StreamingJdbcTemplateTest::mapActor, NUMBER_OF_ROWS)) {
+            assertThat(actors.filter(actor -> actor.getFirstName().length() == 32).count())
+                    .isEqualTo(NUMBER_OF_ROWS);
+        }
+    }
+
+    @Test
+    void shouldPassLargeResultToCallback() {
+        final var streamingTemplate = new StreamingJdbcTemplate(dataSource, 1000);
+        final var count = new AtomicLong();
+
+        streamingTemplate.query(GENERATED_ACTORS, rs -> {
+            if (mapActor(rs, 0).getLastName().length() == 32) {
+                count.incrementAndGet();
+            }
+        }, NUMBER_OF_ROWS);
+
+        assertThat(count).hasValue(NUMBER_OF_ROWS);
+    }
+
+    private static Actor mapActor(ResultSet rs, int rowNum) throws SQLException {
+        return Actor.builder()
+                .id(rs.getInt("actor_id"))
+                .firstName(rs.getString("first_name"))
+                .lastName(rs.getString("last_name"))
+                .build();
+    }
+}